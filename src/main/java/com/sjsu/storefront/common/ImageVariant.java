@@ -0,0 +1,51 @@
+package com.sjsu.storefront.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//resized versions of the uploaded Product images, the size is the longest side in pixels
+public enum ImageVariant {
+	THUMB(160),
+	CARD(480),
+	FULL(1200);
+	
+	//link of the images uploaded to (and served by) the storefront, only those have variants
+	public static final String LOCAL_IMAGE_PREFIX = "/products/images/";
+	
+	private final int maxSize;
+
+	private ImageVariant(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+	
+	//as used in the variant URLs
+	public String getPathName() {
+		return name().toLowerCase();
+	}
+	
+	public static ImageVariant fromPathName(String pathName) {
+		for (ImageVariant variant : values()) {
+			if (variant.getPathName().equals(pathName)) {
+				return variant;
+			}
+		}
+		return null;
+	}
+	
+	//eg: thumb -> /products/images/thumb/<name>, null for images that are not stored locally
+	public static Map<String, String> links(String imageLink) {
+		if (imageLink == null || !imageLink.startsWith(LOCAL_IMAGE_PREFIX) || imageLink.indexOf('/', LOCAL_IMAGE_PREFIX.length()) >= 0) {
+			return null;
+		}
+		String name = imageLink.substring(LOCAL_IMAGE_PREFIX.length());
+		Map<String, String> links = new LinkedHashMap<String, String>();
+		for (ImageVariant variant : values()) {
+			links.put(variant.getPathName(), LOCAL_IMAGE_PREFIX + variant.getPathName() + "/" + name);
+		}
+		return links;
+	}
+}
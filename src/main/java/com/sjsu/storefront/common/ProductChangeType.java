@@ -0,0 +1,6 @@
+package com.sjsu.storefront.common;
+
+public enum ProductChangeType {
+	UPSERT,
+	DELETE
+}
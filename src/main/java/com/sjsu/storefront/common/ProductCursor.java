@@ -0,0 +1,69 @@
+package com.sjsu.storefront.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.sjsu.storefront.data.model.Product;
+
+/**
+ * Opaque keyset cursor for paging through products. It remembers the sort key and id of the
+ * last product on a page, so the next page is fetched with a WHERE (key, id) > (?, ?) seek
+ * instead of an OFFSET that has to skip over every earlier row.
+ */
+public class ProductCursor {
+
+	private final ProductSort sort;
+	private final long id;
+	private final String name;
+	private final double price;
+
+	private ProductCursor(ProductSort sort, long id, String name, double price) {
+		this.sort = sort;
+		this.id = id;
+		this.name = name;
+		this.price = price;
+	}
+
+	public static ProductCursor after(ProductSort sort, Product product) {
+		return new ProductCursor(sort, product.getId(), product.getName(), product.getPrice());
+	}
+
+	//token format before encoding is <sort>:<id>:<key>, the key goes last as names may contain ':'
+	public String encode() {
+		String key = (sort == ProductSort.PRICE) ? Double.toString(price) : name;
+		String raw = sort.name() + ":" + id + ":" + key;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static ProductCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split(":", 3);
+			ProductSort sort = ProductSort.valueOf(parts[0]);
+			long id = Long.parseLong(parts[1]);
+			if (sort == ProductSort.PRICE) {
+				return new ProductCursor(sort, id, null, Double.parseDouble(parts[2]));
+			}
+			return new ProductCursor(sort, id, parts[2], 0);
+		}
+		catch (RuntimeException e) {
+			throw new IllegalArgumentException("Invalid page cursor");
+		}
+	}
+
+	public ProductSort getSort() {
+		return sort;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public double getPrice() {
+		return price;
+	}
+}
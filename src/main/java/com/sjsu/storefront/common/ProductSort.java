@@ -0,0 +1,8 @@
+package com.sjsu.storefront.common;
+
+//Sort keys supported by the paginated product listings. Every key is paired with the product id
+//so the ordering is total and a cursor can point at an exact row
+public enum ProductSort {
+	NAME,
+	PRICE
+}
@@ -0,0 +1,84 @@
+package com.sjsu.storefront.common;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Support for the ?fields= selector. fields is a comma separated list of property names, nested
+ * properties are selected with dots eg: fields=orderId,totalCost,items.product.name
+ * Lists are filtered element by element.
+ */
+public class SparseFields {
+
+	//selected property -> selection inside it (empty means the whole property)
+	private final Map<String, SparseFields> selected = new LinkedHashMap<String, SparseFields>();
+
+	private SparseFields() {
+		
+	}
+
+	//null when no selection was asked for, ie. everything is returned
+	public static SparseFields parse(String fields) {
+		if (fields == null || fields.isBlank()) {
+			return null;
+		}
+		SparseFields root = new SparseFields();
+		for (String path : fields.split(",")) {
+			SparseFields node = root;
+			for (String name : path.trim().split("\\.")) {
+				if (!name.isEmpty()) {
+					node = node.selected.computeIfAbsent(name, n -> new SparseFields());
+				}
+			}
+		}
+		return root;
+	}
+
+	//the value itself when nothing is selected, otherwise its JSON tree trimmed down to the selection
+	public static Object apply(ObjectMapper objectMapper, Object value, String fields) {
+		SparseFields selection = parse(fields);
+		if (selection == null) {
+			return value;
+		}
+		return selection.select(objectMapper.valueToTree(value));
+	}
+
+	public boolean includes(String name) {
+		return selected.containsKey(name);
+	}
+
+	public JsonNode select(JsonNode node) {
+		if (selected.isEmpty() || node == null) {
+			return node;
+		}
+		if (node.isArray()) {
+			for (JsonNode element : (ArrayNode) node) {
+				select(element);
+			}
+		}
+		else if (node.isObject()) {
+			ObjectNode object = (ObjectNode) node;
+			List<String> unselected = new ArrayList<String>();
+			for (Iterator<String> names = object.fieldNames(); names.hasNext();) {
+				String name = names.next();
+				SparseFields child = selected.get(name);
+				if (child == null) {
+					unselected.add(name);
+				}
+				else {
+					child.select(object.get(name));
+				}
+			}
+			object.remove(unselected);
+		}
+		return node;
+	}
+}
@@ -1,5 +1,10 @@
 package com.sjsu.storefront.data.model.DTO;
 
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sjsu.storefront.common.ImageVariant;
 import com.sjsu.storefront.data.model.Image;
 
 public class ImageDTO {
@@ -39,6 +44,14 @@ public class ImageDTO {
 		return id;
 	}
 
+	//links of the resized versions (thumb, card, full) of an uploaded image, none for external images.
+	//Output only: derived from the link, a "variants" sent back in a PUT/PATCH/import body is ignored
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	public Map<String, String> getVariants() {
+		return ImageVariant.links(imageLink);
+	}
+
 	@Override
 	public String toString() {
 		return "Image [id=" + id + ", imageLink=" + imageLink + "]";
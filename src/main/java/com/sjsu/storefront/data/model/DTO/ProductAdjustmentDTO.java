@@ -0,0 +1,42 @@
+package com.sjsu.storefront.data.model.DTO;
+
+//category wide change, either or both of the properties can be given
+public class ProductAdjustmentDTO {
+
+	//eg: 8 for +8%, -10 for -10%, prices are rounded to the cent
+	private Double pricePercent;
+	
+	//new stock of every Product of the category
+	private Integer quantityInStock;
+	
+	public ProductAdjustmentDTO() {
+		
+	}
+
+	public ProductAdjustmentDTO(Double pricePercent, Integer quantityInStock) {
+		super();
+		this.pricePercent = pricePercent;
+		this.quantityInStock = quantityInStock;
+	}
+
+	public Double getPricePercent() {
+		return pricePercent;
+	}
+
+	public void setPricePercent(Double pricePercent) {
+		this.pricePercent = pricePercent;
+	}
+
+	public Integer getQuantityInStock() {
+		return quantityInStock;
+	}
+
+	public void setQuantityInStock(Integer quantityInStock) {
+		this.quantityInStock = quantityInStock;
+	}
+
+	@Override
+	public String toString() {
+		return "ProductAdjustmentDTO [pricePercent=" + pricePercent + ", quantityInStock=" + quantityInStock + "]";
+	}
+}
@@ -0,0 +1,44 @@
+package com.sjsu.storefront.data.model.DTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductBatchDTO {
+
+	//found Products, in the order their ids were requested
+	private List<ProductDTO> products = new ArrayList<ProductDTO>();
+	
+	//requested ids with no Product
+	private List<Long> missing = new ArrayList<Long>();
+	
+	public ProductBatchDTO() {
+		
+	}
+
+	public ProductBatchDTO(List<ProductDTO> products, List<Long> missing) {
+		super();
+		this.products = products;
+		this.missing = missing;
+	}
+
+	public List<ProductDTO> getProducts() {
+		return products;
+	}
+
+	public void setProducts(List<ProductDTO> products) {
+		this.products = products;
+	}
+
+	public List<Long> getMissing() {
+		return missing;
+	}
+
+	public void setMissing(List<Long> missing) {
+		this.missing = missing;
+	}
+
+	@Override
+	public String toString() {
+		return "ProductBatchDTO [products=" + products + ", missing=" + missing + "]";
+	}
+}
@@ -0,0 +1,69 @@
+package com.sjsu.storefront.data.model.DTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductChangesDTO {
+
+	//pass it as 'since' to get the changes that follow
+	private long next;
+	
+	//true when there are more changes after next already
+	private boolean more;
+	
+	//current state of the Products created or changed after since
+	private List<ProductDTO> upserts = new ArrayList<ProductDTO>();
+	
+	//ids of the Products deleted after since
+	private List<Long> deleted = new ArrayList<Long>();
+	
+	public ProductChangesDTO() {
+		
+	}
+
+	public ProductChangesDTO(long next, boolean more, List<ProductDTO> upserts, List<Long> deleted) {
+		super();
+		this.next = next;
+		this.more = more;
+		this.upserts = upserts;
+		this.deleted = deleted;
+	}
+
+	public long getNext() {
+		return next;
+	}
+
+	public void setNext(long next) {
+		this.next = next;
+	}
+
+	public boolean isMore() {
+		return more;
+	}
+
+	public void setMore(boolean more) {
+		this.more = more;
+	}
+
+	public List<ProductDTO> getUpserts() {
+		return upserts;
+	}
+
+	public void setUpserts(List<ProductDTO> upserts) {
+		this.upserts = upserts;
+	}
+
+	public List<Long> getDeleted() {
+		return deleted;
+	}
+
+	public void setDeleted(List<Long> deleted) {
+		this.deleted = deleted;
+	}
+
+	@Override
+	public String toString() {
+		return "ProductChangesDTO [next=" + next + ", more=" + more + ", upserts=" + upserts.size() + ", deleted="
+				+ deleted.size() + "]";
+	}
+}
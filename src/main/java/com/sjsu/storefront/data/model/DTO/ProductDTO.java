@@ -53,6 +53,12 @@ public class ProductDTO {
 		this.images = images;
 	}
 
+	//used by the JPQL projections that don't load the images
+	public ProductDTO(long id, String name, String description, double price, double weight, int quantityInStock,
+			ProductCategory productCategory) {
+		this(id, name, description, price, weight, quantityInStock, productCategory, new ArrayList<ImageDTO>());
+	}
+
 	//copy another Product object into this user
 	public void set(ProductDTO item) {
 		this.name = item.name;
@@ -0,0 +1,57 @@
+package com.sjsu.storefront.data.model.DTO;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductFacetsDTO {
+
+	//number of Products matching the filter, products only holds the requested page of them
+	private long total;
+	
+	private List<ProductDTO> products = new ArrayList<ProductDTO>();
+	
+	//facet name (category, price, weight, stock) -> facet value -> number of matching Products
+	private Map<String, Map<String, Integer>> facets = new LinkedHashMap<String, Map<String, Integer>>();
+	
+	public ProductFacetsDTO() {
+		
+	}
+
+	public ProductFacetsDTO(long total, List<ProductDTO> products, Map<String, Map<String, Integer>> facets) {
+		super();
+		this.total = total;
+		this.products = products;
+		this.facets = facets;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
+	public List<ProductDTO> getProducts() {
+		return products;
+	}
+
+	public void setProducts(List<ProductDTO> products) {
+		this.products = products;
+	}
+
+	public Map<String, Map<String, Integer>> getFacets() {
+		return facets;
+	}
+
+	public void setFacets(Map<String, Map<String, Integer>> facets) {
+		this.facets = facets;
+	}
+
+	@Override
+	public String toString() {
+		return "ProductFacetsDTO [total=" + total + ", products=" + products + ", facets=" + facets + "]";
+	}
+}
@@ -0,0 +1,113 @@
+package com.sjsu.storefront.data.model.DTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+//progress of an ingestion, can be read (e.g. polled through the import job endpoint) while it is still running
+public class ProductIngestReportDTO {
+
+	private String jobId;
+	private volatile boolean finished;
+	
+	//why the ingestion stopped before the end of its input, if it did
+	private volatile String error;
+	
+	private volatile int received;
+	private volatile int created;
+	private volatile int duplicates;
+	private volatile int invalid;
+	private volatile int failed;
+	
+	//one entry per submitted Product in the submitted order, or only the ones not created (up to maxItems) for streamed imports
+	private final List<ProductIngestResultDTO> items = Collections.synchronizedList(new ArrayList<ProductIngestResultDTO>());
+	private final boolean problemsOnly;
+	private final int maxItems;
+	
+	public ProductIngestReportDTO() {
+		this(null, false, Integer.MAX_VALUE);
+	}
+	
+	private ProductIngestReportDTO(String jobId, boolean problemsOnly, int maxItems) {
+		this.jobId = jobId;
+		this.problemsOnly = problemsOnly;
+		this.maxItems = maxItems;
+	}
+	
+	//report whose size does not depend on the number of Products ingested
+	public static ProductIngestReportDTO problemsOnly(String jobId, int maxItems) {
+		return new ProductIngestReportDTO(jobId, true, maxItems);
+	}
+	
+	//only called by the thread doing the ingestion
+	public void add(ProductIngestResultDTO item) {
+		switch (item.getStatus()) {
+		case CREATED:
+			created++;
+			break;
+		case DUPLICATE:
+			duplicates++;
+			break;
+		case INVALID:
+			invalid++;
+			break;
+		case FAILED:
+			failed++;
+			break;
+		}
+		received++;
+		if ((!problemsOnly || item.getStatus() != ProductIngestResultDTO.Status.CREATED) && items.size() < maxItems) {
+			items.add(item);
+		}
+	}
+	
+	public void finish(String error) {
+		this.error = error;
+		this.finished = true;
+	}
+
+	public String getJobId() {
+		return jobId;
+	}
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public int getReceived() {
+		return received;
+	}
+
+	public int getCreated() {
+		return created;
+	}
+
+	public int getDuplicates() {
+		return duplicates;
+	}
+
+	public int getInvalid() {
+		return invalid;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public List<ProductIngestResultDTO> getItems() {
+		synchronized (items) {
+			return new ArrayList<ProductIngestResultDTO>(items);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ProductIngestReportDTO [jobId=" + jobId + ", finished=" + finished + ", error=" + error + ", received="
+				+ received + ", created=" + created + ", duplicates=" + duplicates + ", invalid=" + invalid
+				+ ", failed=" + failed + "]";
+	}
+}
@@ -0,0 +1,78 @@
+package com.sjsu.storefront.data.model.DTO;
+
+//outcome of one Product of a bulk ingestion, index is its position in the submitted list
+public class ProductIngestResultDTO {
+	
+	public enum Status {
+		CREATED, DUPLICATE, INVALID, FAILED
+	}
+
+	private int index;
+	private String name;
+	private Status status;
+	
+	//only set when the Product was created
+	private Long id;
+	
+	//reason when the Product was not created
+	private String message;
+	
+	public ProductIngestResultDTO() {
+		
+	}
+
+	public ProductIngestResultDTO(int index, String name, Status status, Long id, String message) {
+		super();
+		this.index = index;
+		this.name = name;
+		this.status = status;
+		this.id = id;
+		this.message = message;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	@Override
+	public String toString() {
+		return "ProductIngestResultDTO [index=" + index + ", name=" + name + ", status=" + status + ", id=" + id
+				+ ", message=" + message + "]";
+	}
+}
@@ -0,0 +1,43 @@
+package com.sjsu.storefront.data.model.DTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductPageDTO {
+
+	private List<ProductDTO> products = new ArrayList<ProductDTO>();
+	
+	//cursor to pass as 'after' to get the next page, null when this is the last page
+	private String next;
+	
+	public ProductPageDTO() {
+		
+	}
+
+	public ProductPageDTO(List<ProductDTO> products, String next) {
+		super();
+		this.products = products;
+		this.next = next;
+	}
+
+	public List<ProductDTO> getProducts() {
+		return products;
+	}
+
+	public void setProducts(List<ProductDTO> products) {
+		this.products = products;
+	}
+
+	public String getNext() {
+		return next;
+	}
+
+	public void setNext(String next) {
+		this.next = next;
+	}
+
+	@Override
+	public String toString() {
+		return "ProductPageDTO [products=" + products + ", next=" + next + "]";
+	}
+}
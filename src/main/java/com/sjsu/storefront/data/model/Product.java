@@ -1,7 +1,15 @@
 package com.sjsu.storefront.data.model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.hibernate.annotations.DynamicUpdate;
 
 import com.sjsu.storefront.common.ProductCategory;
 import com.sjsu.storefront.data.model.DTO.ImageDTO;
@@ -15,11 +23,19 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "products")
+@DynamicUpdate // updates only write the columns that changed (e.g. a price patch)
+@Table(name = "products", indexes = {
+		@Index(name = "idx_products_name_id", columnList = "name, id"),   // keyset paging by name
+		@Index(name = "idx_products_price_id", columnList = "price, id"),  // keyset paging by price
+		// keyset paging within a category, seeks straight to the category's next rows
+		@Index(name = "idx_products_category_name_id", columnList = "product_category, name, id"),
+		@Index(name = "idx_products_category_price_id", columnList = "product_category, price, id")
+})
 public class Product {
 	@Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -71,17 +87,63 @@ public class Product {
 
 	//copy another Product object into this user
 	public void set(ProductDTO item) {
+		setDetails(item);
+		if(item.getImages() != null) {
+			syncImages(item.getImages());
+		}
+	}
+	
+	//Make the images the requested ones by touching only the difference: an image matches an existing one by id,
+	//or else by link. Unmatched requested images are inserted, unmatched existing ones deleted (orphanRemoval),
+	//matched ones are left alone (or get their link updated)
+	private void syncImages(List<ImageDTO> requested) {
+		Map<Long, Image> byId = new HashMap<Long, Image>();
+		Map<String, Image> byLink = new HashMap<String, Image>();
+		for(Image img : images) {
+			byId.put(img.getId(), img);
+			byLink.putIfAbsent(img.getImageLink(), img);
+		}
+		
+		Set<Image> kept = new HashSet<Image>();
+		Set<String> links = new HashSet<String>();
+		List<Image> added = new ArrayList<Image>();
+		for(ImageDTO img : requested) {
+			Image existing = byId.get(img.getId());
+			if(existing == null || kept.contains(existing)) {
+				existing = byLink.get(img.getImageLink());
+			}
+			if(existing != null && !kept.contains(existing)) {
+				if(!Objects.equals(existing.getImageLink(), img.getImageLink())) {
+					existing.setImageLink(img.getImageLink());
+				}
+				kept.add(existing);
+				links.add(img.getImageLink());
+			}
+			else if(links.add(img.getImageLink())) {
+				//always a new row, whatever id was sent
+				added.add(new Image(0, img.getImageLink(), this));
+			}
+		}
+		
+		Iterator<Image> it = images.iterator();
+		while(it.hasNext()) {
+			Image img = it.next();
+			if(!kept.contains(img)) {
+				it.remove();
+				img.setProduct(null);
+			}
+		}
+		images.addAll(added);
+	}
+	
+	//copy everything but the images
+	public void setDetails(ProductDTO item) {
 		this.name = item.getName();
 		this.description = item.getDescription();
 		this.price = item.getPrice();
 		this.weight = item.getWeight();
 		this.quantityInStock = item.getQuantityInStock(); 
 		this.productCategory = item.getProductCategory();
-		for(ImageDTO img : item.getImages()) {
-			Image image = new Image(img, this);
-			image.setProduct(this);
-			this.addImage(image);
-		}
 	}
 	
 	public void addImage(Image img) {
@@ -0,0 +1,63 @@
+package com.sjsu.storefront.data.model;
+
+import com.sjsu.storefront.common.ProductChangeType;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+//One row per change of a Product (create, update, image change or delete), the change feed reads them in seq order.
+//Only the id of the Product is kept, its current state comes from the catalog
+@Entity
+@Table(name = "product_changes")
+public class ProductChange {
+
+	//IDENTITY: the set-based changes write their rows with one INSERT ... SELECT (ProductChangeRepository)
+	@Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+	private long seq;
+	
+	private long productId;
+	
+	@Enumerated(EnumType.STRING)
+	private ProductChangeType type;
+	
+	//epoch millis
+	private long changedAt;
+	
+	public ProductChange() {
+		
+	}
+
+	public ProductChange(long productId, ProductChangeType type, long changedAt) {
+		super();
+		this.productId = productId;
+		this.type = type;
+		this.changedAt = changedAt;
+	}
+
+	public long getSeq() {
+		return seq;
+	}
+
+	public long getProductId() {
+		return productId;
+	}
+
+	public ProductChangeType getType() {
+		return type;
+	}
+
+	public long getChangedAt() {
+		return changedAt;
+	}
+
+	@Override
+	public String toString() {
+		return "ProductChange [seq=" + seq + ", productId=" + productId + ", type=" + type + ", changedAt=" + changedAt + "]";
+	}
+}
@@ -3,7 +3,6 @@ package com.sjsu.storefront.data.model;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.sjsu.storefront.common.WorkflowException;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
@@ -31,7 +30,8 @@ public class ShoppingCart {
 	
 	
 	 // Define the one-to-many relationship
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY) //is this line correct with the mappedBy = "item" or should it be something else
+    //the lines own it through their cart_id column, so a single line is read and written on its own (CartItemRepository)
+    @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<CartItem> items;
     
 	@OneToOne(cascade = CascadeType.ALL)
@@ -129,25 +129,10 @@ public class ShoppingCart {
 		this.user = user;
 	}
 
-	public void addItem(CartItem cartItem) throws WorkflowException {
-		boolean bFoundProduct = false;
-		for(CartItem item : this.items) {
-			if(item.getProduct().getName().compareToIgnoreCase(cartItem.getProduct().getName()) == 0) {
-				bFoundProduct = true;
-				//just increment the count of the CartItem for that product
-				int newQty = item.getQuantity()+ cartItem.getQuantity();
-				if(newQty <= item.getProduct().getQuantityInStock()) { //if there is still enough in inventory
-					item.setQuantity(newQty);
-				}
-				else {
-					throw new WorkflowException("Not enough Inventory for " + item.getProduct().getName());
-				}
-			}
-		}
-		if(!bFoundProduct) {
-			this.items.add(cartItem);
-		}
-		
+	//adds the line of a Product not in the cart yet, without loading the other lines
+	public void addItem(CartItem cartItem) {
+		cartItem.setCart(this);
+		this.items.add(cartItem);
 	}
 
 
@@ -2,6 +2,8 @@ package com.sjsu.storefront.data.model;
 
 import java.util.List;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import com.sjsu.storefront.common.UserType;
 import com.sjsu.storefront.data.model.DTO.UserDTO;
 
@@ -20,6 +22,7 @@ import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 
 @Entity
+@DynamicUpdate // updates only write the columns that changed
 @Table(name = "users")
 public class User {
 	@Id
@@ -1,6 +1,10 @@
 package com.sjsu.storefront.data.respository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sjsu.storefront.data.model.CartItem;
@@ -8,4 +12,15 @@ import com.sjsu.storefront.data.model.CartItem;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
-}
\ No newline at end of file
+
+	//the line of the Product in the cart, null when the Product is not in it. Unique (cart_id, product_id)
+	public CartItem findByCartIdAndProductId(long cartId, long productId);
+	
+	//the line only when it belongs to the cart
+	public CartItem findByIdAndCartId(Long id, long cartId);
+	
+	//total weight and Product cost of the cart, each line counted in whole units as the totals always were
+	@Query("SELECT coalesce(sum(floor(ci.product.weight * ci.quantity)), 0), coalesce(sum(floor(ci.product.price * ci.quantity)), 0) "
+			+ "FROM CartItem ci WHERE ci.cart.id = :cartId")
+	public List<Object[]> sumWeightAndCost(@Param("cartId") long cartId);
+}
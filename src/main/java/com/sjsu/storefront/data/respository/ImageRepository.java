@@ -1,6 +1,12 @@
 package com.sjsu.storefront.data.respository;
 
+import java.util.Collection;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sjsu.storefront.data.model.Image;
@@ -8,4 +14,15 @@ import com.sjsu.storefront.data.model.Image;
 @Repository
 public interface ImageRepository extends JpaRepository<Image, Long>{
 
+	//an uploaded image that the Product already has
+	public Optional<Image> findFirstByProductIdAndImageLink(long productId, String imageLink);
+	
+	//one statement, the Product and its other images are not loaded. Returns the number of images deleted
+	@Modifying
+	@Query("DELETE FROM Image i WHERE i.product.id = :productId AND i.id = :imageId")
+	public int deleteFromProduct(@Param("productId") long productId, @Param("imageId") long imageId);
+	
+	@Modifying
+	@Query("DELETE FROM Image i WHERE i.product.id = :productId AND i.id IN :imageIds")
+	public int deleteAllFromProduct(@Param("productId") long productId, @Param("imageIds") Collection<Long> imageIds);
 }
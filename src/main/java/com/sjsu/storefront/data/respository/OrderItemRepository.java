@@ -0,0 +1,20 @@
+package com.sjsu.storefront.data.respository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.sjsu.storefront.data.model.OrderItem;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+	//(order item id, order id, product id) rows in id order, for a scan of the whole order history in chunks
+	//without loading the Orders nor the Products
+	@Query("SELECT oi.id, oi.order.userOrderId, oi.product.id FROM OrderItem oi WHERE oi.id > :id ORDER BY oi.id")
+	public List<Object[]> findChunkAfterId(@Param("id") long id, Pageable page);
+}
@@ -0,0 +1,34 @@
+package com.sjsu.storefront.data.respository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.sjsu.storefront.data.model.ProductChange;
+
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+	//the primary key is the sequence, this is a range scan of it
+	@Query("SELECT c FROM ProductChange c WHERE c.seq > :since ORDER BY c.seq")
+	public List<ProductChange> findAfter(@Param("since") long since, Pageable page);
+	
+	@Query("SELECT coalesce(max(c.seq), 0) FROM ProductChange c")
+	public long findLastSeq();
+	
+	//an UPSERT change for every Product of the category in one statement, for the category wide adjustments
+	@Modifying
+	@Query(value = "INSERT INTO product_changes (product_id, type, changed_at) "
+			+ "SELECT p.id, 'UPSERT', :changedAt FROM products p WHERE p.product_category = :category", nativeQuery = true)
+	public int recordUpsertsInCategory(@Param("category") String category, @Param("changedAt") long changedAt);
+	
+	//same for some Products, e.g. a flushed batch of a bulk ingestion
+	@Modifying
+	@Query(value = "INSERT INTO product_changes (product_id, type, changed_at) "
+			+ "SELECT p.id, 'UPSERT', :changedAt FROM products p WHERE p.id IN :ids", nativeQuery = true)
+	public int recordUpserts(@Param("ids") Collection<Long> ids, @Param("changedAt") long changedAt);
+}
@@ -1,25 +1,99 @@
 package com.sjsu.storefront.data.respository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sjsu.storefront.common.ProductCategory;
 import com.sjsu.storefront.data.model.Product;
+import com.sjsu.storefront.data.model.DTO.ProductDTO;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+	//List queries fetch the images in the same query, instead of one lazy load per Product.
+	//The paged queries can't join fetch a collection (the limit would be applied in memory),
+	//they rely on hibernate.default_batch_fetch_size to load the images of a page in one IN query
+	@Override
+	@EntityGraph(attributePaths = "images")
+	public List<Product> findAll();
+	
+	@EntityGraph(attributePaths = "images")
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     public List<Product> findByProductNameContaining(@Param("searchTerm") String searchTerm);
     
     
+    @EntityGraph(attributePaths = "images")
     public List<Product> findByproductCategory(ProductCategory productCategory);
+    
+    @EntityGraph(attributePaths = "images")
+    public List<Product> findByIdIn(Collection<Long> ids);
 
 
 	public Optional<Product> findByName(String name);
+	
+	//Category wide adjustments as single set-based statements, return the number of Products changed.
+	//The persistence context is cleared as the Products it holds may be out of date afterwards
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Product p SET p.price = round(p.price * :factor, 2) WHERE p.productCategory = :category")
+	public int scalePriceInCategory(@Param("category") ProductCategory category, @Param("factor") double factor);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Product p SET p.quantityInStock = :quantity WHERE p.productCategory = :category")
+	public int setStockInCategory(@Param("category") ProductCategory category, @Param("quantity") int quantity);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Product p SET p.price = round(p.price * :factor, 2), p.quantityInStock = :quantity WHERE p.productCategory = :category")
+	public int adjustInCategory(@Param("category") ProductCategory category, @Param("factor") double factor,
+			@Param("quantity") int quantity);
+	
+	//what a category wide adjustment changes, as columns only (id, price, quantityInStock): no Product nor image is loaded
+	@Query("SELECT p.id, p.price, p.quantityInStock FROM Product p WHERE p.productCategory = :category")
+	public List<Object[]> findPriceAndStockInCategory(@Param("category") ProductCategory category);
+	
+	//duplicate check for a whole chunk of a bulk ingestion in one query
+	@Query("SELECT p.name FROM Product p WHERE p.name IN :names")
+	public List<String> findExistingNames(@Param("names") Collection<String> names);
+	
+	
+	//Keyset (seek) pagination - the Pageable only carries the page size, the position comes from the last (key, id) seen
+	@Query("SELECT p FROM Product p ORDER BY p.name, p.id")
+	public List<Product> findFirstPageByName(Pageable page);
+	
+	@Query("SELECT p FROM Product p WHERE p.name > :name OR (p.name = :name AND p.id > :id) ORDER BY p.name, p.id")
+	public List<Product> findPageAfterName(@Param("name") String name, @Param("id") long id, Pageable page);
+	
+	@Query("SELECT p FROM Product p ORDER BY p.price, p.id")
+	public List<Product> findFirstPageByPrice(Pageable page);
+	
+	@Query("SELECT p FROM Product p WHERE p.price > :price OR (p.price = :price AND p.id > :id) ORDER BY p.price, p.id")
+	public List<Product> findPageAfterPrice(@Param("price") double price, @Param("id") long id, Pageable page);
+	
+	@Query("SELECT p FROM Product p WHERE p.productCategory = :category ORDER BY p.name, p.id")
+	public List<Product> findFirstPageInCategoryByName(@Param("category") ProductCategory category, Pageable page);
+	
+	@Query("SELECT p FROM Product p WHERE p.productCategory = :category AND (p.name > :name OR (p.name = :name AND p.id > :id)) ORDER BY p.name, p.id")
+	public List<Product> findPageInCategoryAfterName(@Param("category") ProductCategory category, @Param("name") String name, @Param("id") long id, Pageable page);
+	
+	@Query("SELECT p FROM Product p WHERE p.productCategory = :category ORDER BY p.price, p.id")
+	public List<Product> findFirstPageInCategoryByPrice(@Param("category") ProductCategory category, Pageable page);
+	
+	@Query("SELECT p FROM Product p WHERE p.productCategory = :category AND (p.price > :price OR (p.price = :price AND p.id > :id)) ORDER BY p.price, p.id")
+	public List<Product> findPageInCategoryAfterPrice(@Param("category") ProductCategory category, @Param("price") double price, @Param("id") long id, Pageable page);
+	
+	//chunks for a full catalog scan in id order, used by the export
+	@Query("SELECT p FROM Product p WHERE p.id > :id ORDER BY p.id")
+	public List<Product> findChunkAfterId(@Param("id") long id, Pageable page);
+	
+	//column only projection for callers that don't want the images, the images table is never touched
+	@Query("SELECT new com.sjsu.storefront.data.model.DTO.ProductDTO(p.id, p.name, p.description, p.price, p.weight, p.quantityInStock, p.productCategory) FROM Product p")
+	public List<ProductDTO> findAllWithoutImages();
 }
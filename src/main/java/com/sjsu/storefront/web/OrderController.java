@@ -10,10 +10,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sjsu.storefront.common.OrderStatus;
 import com.sjsu.storefront.common.ResourceNotFoundException;
+import com.sjsu.storefront.common.SparseFields;
 import com.sjsu.storefront.common.WorkflowException;
 import com.sjsu.storefront.data.model.DTO.OrderDTO;
 import com.sjsu.storefront.web.services.OrderService;
@@ -25,18 +28,23 @@ public class OrderController {
 	@Autowired
     private OrderService orderService;
 	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
 	//TODO add SAMEUSER check
+	//fields selects the properties returned eg: ?fields=orderId,orderStatus,totalCost,items.product.name
 	@GetMapping("/user/{id}")
-    public List<OrderDTO> getAllOrdersForUser(@PathVariable Long id) {
-        return orderService.getAllOrdersForUser(id);
+    public Object getAllOrdersForUser(@PathVariable Long id, @RequestParam(required = false) String fields) {
+        List<OrderDTO> orders = orderService.getAllOrdersForUser(id);
+        return SparseFields.apply(objectMapper, orders, fields);
     }
 	
 	//TODO add SAMEUSER check or ADMIN
 	@GetMapping("/{id}")
-    public ResponseEntity<OrderDTO> getOrder(@PathVariable Long orderId) {
+    public ResponseEntity<Object> getOrder(@PathVariable("id") Long orderId, @RequestParam(required = false) String fields) {
         try {
             OrderDTO order = orderService.getOderById(orderId);
-            return (ResponseEntity.ok(order));
+            return (ResponseEntity.ok(SparseFields.apply(objectMapper, order, fields)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
@@ -1,33 +1,68 @@
 package com.sjsu.storefront.web;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.crossstore.ChangeSetPersister.NotFoundException;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.sjsu.storefront.common.AuthZCheck;
 import com.sjsu.storefront.common.DuplicateResourceException;
 import com.sjsu.storefront.common.ProductCategory;
+import com.sjsu.storefront.common.ProductSort;
 import com.sjsu.storefront.common.ResourceNotFoundException;
-import com.sjsu.storefront.data.model.Image;
+import com.sjsu.storefront.common.SparseFields;
 import com.sjsu.storefront.data.model.DTO.ImageDTO;
+import com.sjsu.storefront.data.model.DTO.ProductAdjustmentDTO;
+import com.sjsu.storefront.data.model.DTO.ProductBatchDTO;
+import com.sjsu.storefront.data.model.DTO.ProductChangesDTO;
 import com.sjsu.storefront.data.model.DTO.ProductDTO;
+import com.sjsu.storefront.data.model.DTO.ProductFacetsDTO;
+import com.sjsu.storefront.data.model.DTO.ProductIngestReportDTO;
+import com.sjsu.storefront.data.model.DTO.ProductPageDTO;
 import com.sjsu.storefront.web.services.ProductService;
+import com.sjsu.storefront.web.services.ProductServiceImpl;
+import com.sjsu.storefront.web.services.catalog.ProductCatalogIndex;
+import com.sjsu.storefront.web.services.catalog.ProductCompanions;
+import com.sjsu.storefront.web.services.catalog.ProductJsonCache;
+import com.sjsu.storefront.web.services.catalog.ProductPopularity;
+import com.sjsu.storefront.web.services.catalog.ProductUpdatePublisher;
+import com.sjsu.storefront.web.services.images.ImageBlobStore;
+import com.sjsu.storefront.web.services.images.ImageVariantCache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.JsonPatch;
+import com.github.fge.jsonpatch.JsonPatchException;
 
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/products")
@@ -35,23 +70,153 @@ public class ProductController {
 
 	@Autowired
 	ProductService productService;
+	
+	@Autowired
+	ProductJsonCache productJsonCache;
+	
+	@Autowired
+	ProductCatalogIndex productCatalogIndex;
+	
+	@Autowired
+	ProductUpdatePublisher productUpdatePublisher;
+
+	@Autowired
+	ProductPopularity productPopularity;
+	
+	@Autowired
+	ImageBlobStore imageBlobStore;
+	
+	@Autowired
+	ImageVariantCache imageVariantCache;
+	
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	@Autowired
+	MappingJackson2CborHttpMessageConverter cborConverter;
+	
+	@Autowired
+	MappingJackson2SmileHttpMessageConverter smileConverter;
+	
+	@Autowired
+	HttpServletRequest httpRequest;
+	
+	@Autowired
+	HttpServletResponse httpResponse;
   	
 	private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
+	
+	//catalog versions restart with the process, this keeps ETags of different runs apart
+	private static final String ETAG_PREFIX = Long.toString(System.currentTimeMillis(), 36);
+	
+	private static final String CATEGORIES_ETAG = "\"categories-" + Integer.toHexString(Arrays.toString(ProductCategory.values()).hashCode()) + "\"";
 
 	    
-	@Operation(summary = "Get all Products in the system")
+	@Operation(summary = "Get all Products in the system. Use fields to only get some of the properties eg: ?fields=id,name,price")
 	@GetMapping
-	public ResponseEntity<List<ProductDTO>> getAllProducts() {
-
+	public void getAllProducts(@RequestParam(required = false) String fields, WebRequest request,
+			HttpServletResponse response) throws IOException {
+		
+		//answered with a 304 before anything is loaded when the client has the current catalog
+		if (request.checkNotModified(catalogETag(), productCatalogIndex.getCatalogLastModified())) {
+			return;
+		}
+		SparseFields selection = SparseFields.parse(fields);
+		if (selection == null && binaryConverter() == null && productCatalogIndex.isLoaded()) {
+			jsonByIds(productCatalogIndex.ids(null), response);
+			return;
+		}
+		if (selection != null && !selection.includes("images")) {
+			json(productService.getAllProductsWithoutImages(), selection, response);
+			return;
+		}
         List<ProductDTO> products = productService.getAllProducts();
-        return new ResponseEntity<>(products, HttpStatus.OK);
+        json(products, selection, response);
+	}
+
+
+	@Operation(summary = "Server-Sent Events stream of the price and stock of some Products eg: /products/stream?ids=1,2,3 (at most "
+			+ ProductUpdatePublisher.MAX_PRODUCTS_PER_SUBSCRIPTION + "). Sends their current values, then a 'product' event whenever they change")
+	@GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamProductUpdates(@RequestParam List<Long> ids) {
+		return productUpdatePublisher.subscribe(ids);
+	}
+	
+	@Operation(summary = "Incremental sync: the Products created/changed and deleted since a change sequence. "
+			+ "Start with since=0 then pass the 'next' of the previous response, repeat while 'more' is true")
+	@GetMapping("/changes")
+	public ProductChangesDTO getChanges(@RequestParam(defaultValue = "0") long since,
+			@RequestParam(defaultValue = "500") int limit) {
+		return productService.getChanges(since, limit);
+	}
+	
+	@Operation(summary = "Trending Products, most popular first: by=VIEW (most viewed) or by=ADD_TO_CART (most added to carts), "
+			+ "recent activity counts more. At most " + ProductPopularity.MAX_TOP + " eg: /products/trending?by=VIEW&limit=10")
+	@GetMapping("/trending")
+	public void getTrendingProducts(@RequestParam(defaultValue = "VIEW") ProductPopularity.Event by,
+			@RequestParam(defaultValue = "10") int limit, @RequestParam(required = false) String fields,
+			HttpServletResponse response) throws IOException {
+		json(productPopularity.top(by, limit), SparseFields.parse(fields), response);
+	}
+	
+	@Operation(summary = "Frequently bought together: the Products most often ordered with all of the given ones (e.g. a cart), "
+			+ "most frequent first, at most " + ProductCompanions.MAX_LIMIT + " eg: /products/companions?ids=1,2,3&limit=5")
+	@GetMapping("/companions")
+	public void getCartCompanions(@RequestParam List<Long> ids, @RequestParam(defaultValue = "10") int limit,
+			@RequestParam(required = false) String fields, HttpServletResponse response) throws IOException {
+		json(productService.getCompanions(ids, limit), SparseFields.parse(fields), response);
+	}
+	
+	@Operation(summary = "Frequently bought together: the Products most often ordered with this one, most frequent first, at most "
+			+ ProductCompanions.MAX_LIMIT + ". Use fields to only get some of the properties eg: ?fields=id,name,price")
+	@GetMapping("/{id}/companions")
+	public void getCompanions(@PathVariable Long id, @RequestParam(defaultValue = "10") int limit,
+			@RequestParam(required = false) String fields, HttpServletResponse response) throws IOException {
+		try {
+			json(productService.getCompanions(id, limit), SparseFields.parse(fields), response);
+		}
+		catch(ResourceNotFoundException nfe) {
+			response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+		}
+	}
+	
+	@Operation(summary = "Get several Products in one call eg: /products?ids=1,2,3 (at most 100). "
+			+ "Products come back in the requested order, ids that don't exist are listed in 'missing'")
+	@GetMapping(params = "ids")
+	public ProductBatchDTO getProductsByIds(@RequestParam List<Long> ids) {
+		return productService.getProducts(ids);
+	}
+	
+	@Operation(summary = "Same as GET /products?ids=, with the ids as a JSON array in the body for long id lists")
+	@PostMapping("/batch")
+	public ProductBatchDTO getProductsByIdsBatch(@RequestBody List<Long> ids) {
+		return productService.getProducts(ids);
 	}
 
+	@Operation(summary = "Export the whole catalog as NDJSON, one Product per line. Streams, so it works for any catalog size")
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public void exportProducts(HttpServletResponse response) throws IOException {
+		//written on the request thread: an async StreamingResponseBody would be cut off by the async request timeout
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		productService.exportProducts(response.getOutputStream());
+	}
 
-	@Operation(summary = "Get a Product Details by id")
+
+	@Operation(summary = "Get a Product Details by id. Use fields to only get some of the properties eg: ?fields=id,name,price")
 	@GetMapping("/{id}")
-	public ProductDTO getItemById(@PathVariable Long id) throws ResourceNotFoundException {
-	    return productService.getProduct(id);
+	public ResponseEntity<byte[]> getItemById(@PathVariable Long id, @RequestParam(required = false) String fields,
+			WebRequest request) throws ResourceNotFoundException, IOException {
+		ProductCatalogIndex.Versioned current = productCatalogIndex.getVersioned(id);
+		if (current != null && request.checkNotModified(productETag(current), current.getLastModified())) {
+			productPopularity.record(ProductPopularity.Event.VIEW, id);
+			return null;
+		}
+		//an indexed Product is answered without a transaction (nor a database connection)
+	    ProductDTO product = current != null ? current.getProduct() : productService.getProduct(id);
+	    productPopularity.record(ProductPopularity.Event.VIEW, id);
+	    SparseFields selection = SparseFields.parse(fields);
+	    byte[] body = selection != null || binaryConverter() != null ? selected(product, selection) : productJsonCache.get(product);
+	    return ResponseEntity.ok().contentType(contentType()).varyBy(HttpHeaders.ACCEPT).body(body);
 	}
 	
 	@Operation(summary = "Create a NEW Product in the system")
@@ -59,16 +224,38 @@ public class ProductController {
 	@PostMapping("/bulkadd")
 	public ResponseEntity<String> bulkAddProducts(@RequestBody List<ProductDTO> products) {
 		logger.info("Going to add a bunch of Products");
-		for(ProductDTO product : products) {
-		    try {
-				productService.createProduct(product);
-			} catch (DuplicateResourceException e) {
-				  logger.info(e.getMessage());
-			}
-		}
+		productService.bulkCreateProducts(products);
 	    return ResponseEntity.created(null).body("Products created successfully");			
 	}
+	
+	@Operation(summary = "Create many NEW Products at once. Returns what happened to each of them (CREATED, DUPLICATE, INVALID or FAILED)")
+	@AuthZCheck // Apply the AuthAspect to this method
+	@PostMapping("/bulk")
+	public ResponseEntity<ProductIngestReportDTO> bulkCreateProducts(@RequestBody List<ProductDTO> products) {
+		logger.info("Going to ingest {} Products", products.size());
+	    return ResponseEntity.ok(productService.bulkCreateProducts(products));
+	}
 	  
+	@Operation(summary = "Import a Product feed of any size, as NDJSON (one Product per line) or a JSON array. "
+			+ "Pass a jobId to follow the progress with GET /products/import/{jobId}")
+	@AuthZCheck // Apply the AuthAspect to this method
+	@PostMapping(value = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+	public ResponseEntity<ProductIngestReportDTO> importProducts(@RequestParam(required = false) String jobId, InputStream body) throws IOException {
+		logger.info("Going to import a Product feed");
+	    return ResponseEntity.ok(productService.importProducts(body, jobId));
+	}
+	
+	@Operation(summary = "Progress of a Product import")
+	@GetMapping("/import/{jobId}")
+	public ResponseEntity<ProductIngestReportDTO> getImportProgress(@PathVariable String jobId) {
+		try {
+			return ResponseEntity.ok(productService.getImportProgress(jobId));
+		}
+		catch(ResourceNotFoundException nfe) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+	
 	@Operation(summary = "Create a NEW Product in the system")
 	//@AuthZCheck // Apply the AuthAspect to this method //TODO Uncomment ME
 	@PostMapping
@@ -85,16 +272,68 @@ public class ProductController {
 	    productService.addImage(id, image);
 	    return ResponseEntity.ok("Images Successfully added");
 	}
+	
+	@Operation(summary = "Add several new Images to the Product, returns them with their ids")
+	@AuthZCheck // Apply the AuthAspect to this method
+	@PostMapping("{id}/images/batch")
+	public ResponseEntity<List<ImageDTO>> addImages(@PathVariable Long id, @RequestBody List<ImageDTO> images) {
+		try {
+			return ResponseEntity.ok(productService.addImages(id, images));
+		}
+		catch(ResourceNotFoundException nfe) {
+			return ResponseEntity.notFound().build();
+		}
+	}
 
 	  
+	@Operation(summary = "Upload an image file (the request body, as image/jpeg, image/png, image/gif or image/webp) to the Product. "
+			+ "It is served from this server, its link is returned")
+	@AuthZCheck // Apply the AuthAspect to this method
+	@PostMapping(path = "{id}/images/upload", consumes = { "image/jpeg", "image/png", "image/gif", "image/webp" })
+	public ResponseEntity<ImageDTO> uploadImage(@PathVariable Long id, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+			InputStream body) throws IOException {
+		try {
+			ImageDTO image = productService.uploadImage(id, body, contentType.getType() + "/" + contentType.getSubtype());
+			return ResponseEntity.created(URI.create(image.getImageLink())).body(image);
+		}
+		catch(ResourceNotFoundException nfe) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+	
+	@Operation(summary = "Get an uploaded image. Supports Range requests, the content of an image URL never changes")
+	@GetMapping("/images/{name}")
+	public void getImage(@PathVariable String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		imageBlobStore.serve(name, request, response);
+	}
+	
+	@Operation(summary = "Get a resized version of an uploaded image: thumb, card or full eg: /products/images/thumb/<name>. "
+			+ "The links are listed in the 'variants' of the images")
+	@GetMapping("/images/{variant}/{name}")
+	public void getImageVariant(@PathVariable String variant, @PathVariable String name, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+		imageVariantCache.serve(variant, name, request, response);
+	}
+
 	  @Operation(summary = "Delete an Image from the Product, given image ID")
 	  @AuthZCheck // Apply the AuthAspect to this method
 	  @DeleteMapping("{id}/images/{imgId}")
-	  public ResponseEntity<String> deleteImage(@PathVariable Long id,@PathVariable Long imgId, @RequestBody Image image) throws ResourceNotFoundException {
-
-		  productService.deleteImage(id,imgId);
-	      return ResponseEntity.ok("Images Successfully DELETED");
-	      
+	  public ResponseEntity<String> deleteImage(@PathVariable Long id,@PathVariable Long imgId) {
+		  try {
+			  productService.deleteImage(id,imgId);
+			  return ResponseEntity.ok("Images Successfully DELETED");
+		  }
+		  catch(ResourceNotFoundException nfe) {
+			  return ResponseEntity.notFound().build();
+		  }
+	  }
+	  
+	  @Operation(summary = "Delete several Images from the Product eg: /products/1/images?ids=4,5,6")
+	  @AuthZCheck // Apply the AuthAspect to this method
+	  @DeleteMapping(path = "{id}/images", params = "ids")
+	  public ResponseEntity<String> deleteImages(@PathVariable Long id, @RequestParam List<Long> ids) {
+		  int deleted = productService.deleteImages(id, ids);
+	      return ResponseEntity.ok(deleted + " Images Successfully DELETED");
 	  }
 	  
 	  @Operation(summary = "Delete an item in the system given Item's id")
@@ -120,34 +359,191 @@ public class ProductController {
 		  }
 	  }
 	  
+	  @Operation(summary = "Update only some properties of a Product with a JSON Patch, eg: [{\"op\": \"replace\", \"path\": \"/price\", \"value\": 9.99}]")
+	  @AuthZCheck // Apply the AuthAspect to this method
+	  @PatchMapping(path = "/{id}", consumes = "application/json-patch+json")
+	  public ResponseEntity<ProductDTO> patchProduct(@PathVariable Long id, @RequestBody JsonPatch patch) throws JsonPatchException {
+		  try {
+			  return ResponseEntity.ok(productService.patchProduct(id, patch));
+		  }
+		  catch(ResourceNotFoundException nfe) {
+			  return ResponseEntity.notFound().build();
+		  }
+	  }
+	  
 	  @Operation(summary = "Eg: Serach for a Product 'computer' like /products/search/computer")
 	  @GetMapping("/search/{searchTerm}")
-	  public List<ProductDTO> getProductsByName(@PathVariable String searchTerm) {
-	      return productService.findProductsByName(searchTerm);
+	  public void getProductsByName(@PathVariable String searchTerm, HttpServletResponse response) throws IOException {
+	      json(productService.findProductsByName(searchTerm), null, response);
 	  }
 
 	  @Operation(summary = "Eg: Serach for a Product 'computer' like /products/search?searchTerm=computer")
 	  @GetMapping("/search")
-	  public List<ProductDTO> getProductsByNameQueryParam(@RequestParam String searchTerm) {
-	      return productService.findProductsByName(searchTerm);
+	  public void getProductsByNameQueryParam(@RequestParam String searchTerm, HttpServletResponse response) throws IOException {
+	      json(productService.findProductsByName(searchTerm), null, response);
+	  }
+	  
+	  @Operation(summary = "Typo tolerant search, eg: /products/search/fuzzy?searchTerm=bannana. Best matches come first, page is 0 based")
+	  @GetMapping("/search/fuzzy")
+	  public void getProductsByNameFuzzy(@RequestParam String searchTerm,
+			  @RequestParam(defaultValue = "0") int page,
+			  @RequestParam(defaultValue = "" + ProductServiceImpl.DEFAULT_PAGE_SIZE) int size,
+			  HttpServletResponse response) throws IOException {
+	      json(productService.findProductsByNameFuzzy(searchTerm, page, size), null, response);
 	  }
 	  
-	  @Operation(summary = "Returns all the Products under the Categoy give")
+	  @Operation(summary = "Type-ahead: returns up to 'limit' (max 10) Product names starting with the prefix, eg: /products/suggest?prefix=ap")
+	  @GetMapping("/suggest")
+	  public List<String> suggestProductNames(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+	      return productService.suggestProductNames(prefix, limit);
+	  }
+	  
+	  @Operation(summary = "Returns all the Products under the Categoy give. Use fields to only get some of the properties eg: ?fields=id,name,price")
 	  @GetMapping("/byCategory/{category}")
-	  public List<ProductDTO> getProductsByCategory(@PathVariable ProductCategory category) throws NotFoundException {
-	      return productService.findProductsByCategory(category);
+	  public void getProductsByCategory(@PathVariable ProductCategory category,
+			  @RequestParam(required = false) String fields, WebRequest request,
+			  HttpServletResponse response) throws NotFoundException, IOException {
+		  if (request.checkNotModified(catalogETag(), productCatalogIndex.getCatalogLastModified())) {
+			  return;
+		  }
+		  SparseFields selection = SparseFields.parse(fields);
+		  if (selection == null && binaryConverter() == null && productCatalogIndex.isLoaded()) {
+			  jsonByIds(productCatalogIndex.ids(category), response);
+			  return;
+		  }
+	      json(productService.findProductsByCategory(category), selection, response);
+	  }
+	  
+	  @Operation(summary = "Admin: change all the Products of a Category at once eg: {\"pricePercent\": 8} for +8%, "
+	  		+ "{\"quantityInStock\": 0} to reset the stock. Returns the number of Products changed")
+	  @AuthZCheck // Apply the AuthAspect to this method
+	  @PostMapping("/byCategory/{category}/adjust")
+	  public ResponseEntity<Integer> adjustCategory(@PathVariable ProductCategory category, @RequestBody ProductAdjustmentDTO adjustment) {
+		  return ResponseEntity.ok(productService.adjustCategory(category, adjustment));
+	  }
+	  
+	  @Operation(summary = "Faceted search eg: /products/facets?category=FRUIT&category=VEGETABLE&price=0-5&inStock=true. "
+	  		+ "Returns the matching Products (page is 0 based) and the Product count of every facet value")
+	  @GetMapping("/facets")
+	  public ProductFacetsDTO getProductsByFacets(@RequestParam(required = false) List<ProductCategory> category,
+			  @RequestParam(required = false) List<String> price,
+			  @RequestParam(required = false) List<String> weight,
+			  @RequestParam(required = false) Boolean inStock,
+			  @RequestParam(defaultValue = "0") int page,
+			  @RequestParam(defaultValue = "" + ProductServiceImpl.DEFAULT_PAGE_SIZE) int size) {
+	      return productService.findProductsByFacets(category, price, weight, inStock, page, size);
 	  }
 	  
 	  @Operation(summary = "Returns a List of all Product Categories")
 	  @GetMapping("/categories")
-	  public List<String> getProductCategories(){
-	      return productService.getProductCategories();
+	  public ResponseEntity<List<String>> getProductCategories(WebRequest request){
+		  //the categories only change with a new build
+		  if (request.checkNotModified(CATEGORIES_ETAG)) {
+			  return null;
+		  }
+	      return ResponseEntity.ok(productService.getProductCategories());
 	  }	  
 	  
-	  	  
-	  //TODO get all products - Paginate
+	  @Operation(summary = "Get a page of Products. Pass the 'next' cursor of a page as 'after' to get the following page")
+	  @GetMapping("/page")
+	  public ProductPageDTO getProductsPage(@RequestParam(required = false) String after,
+			  @RequestParam(defaultValue = "" + ProductServiceImpl.DEFAULT_PAGE_SIZE) int limit,
+			  @RequestParam(required = false) ProductSort sort) {
+	      return productService.getProductsPage(null, after, limit, sort);
+	  }
+	  
+	  @Operation(summary = "Get a page of Products under the Category given. Pass the 'next' cursor of a page as 'after' to get the following page")
+	  @GetMapping("/byCategory/{category}/page")
+	  public ProductPageDTO getProductsByCategoryPage(@PathVariable ProductCategory category,
+			  @RequestParam(required = false) String after,
+			  @RequestParam(defaultValue = "" + ProductServiceImpl.DEFAULT_PAGE_SIZE) int limit,
+			  @RequestParam(required = false) ProductSort sort) {
+	      return productService.getProductsPage(category, after, limit, sort);
+	  }
+	  
+	  //The lists are written on the request thread straight from the serialized Product cache: the bytes are
+	  //ready, an async dispatch would only add a hand-off and tie the reads to the task executor
+	  private void json(List<ProductDTO> products, SparseFields selection, HttpServletResponse response) throws IOException {
+		  response.setContentType(contentType().toString());
+		  varyByAccept();
+		  if (selection != null || binaryConverter() != null) {
+			  response.getOutputStream().write(selected(products, selection));
+		  }
+		  else {
+			  productJsonCache.writeArray(products, response.getOutputStream());
+		  }
+	  }
 	  
-	  //TODO get all products in a category - Paginate
+	  //the Products as a JSON array, written from the index and the serialized Product cache without loading them
+	  private void jsonByIds(List<Long> ids, HttpServletResponse response) throws IOException {
+		  response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		  varyByAccept();
+		  productJsonCache.writeIdArray(ids, response.getOutputStream());
+	  }
 	  
-	  //TODO search by product name - support Fuzzy search - Paginate
+	  //the cached serialized Products can't be used when only some of the properties are wanted, or for CBOR/Smile
+	  private byte[] selected(Object value, SparseFields selection) throws IOException {
+		  AbstractJackson2HttpMessageConverter binary = binaryConverter();
+		  ObjectMapper mapper = binary != null ? binary.getObjectMapper() : objectMapper;
+		  Object selected = selection == null ? value : selection.select(objectMapper.valueToTree(value));
+		  return mapper.writeValueAsBytes(selected);
+	  }
+	  
+	  private MediaType contentType() {
+		  AbstractJackson2HttpMessageConverter binary = binaryConverter();
+		  return binary != null ? binary.getSupportedMediaTypes().get(0) : MediaType.APPLICATION_JSON;
+	  }
+	  
+	  //the streamed responses bypass the message converters, so pick the binary format here when the client prefers it:
+	  //highest quality first, then the specific types before the wildcards, then the order of the header
+	  private AbstractJackson2HttpMessageConverter binaryConverter() {
+		  String accept = httpRequest.getHeader(HttpHeaders.ACCEPT);
+		  if (accept == null) {
+			  return null;
+		  }
+		  List<MediaType> types = new ArrayList<MediaType>(MediaType.parseMediaTypes(accept));
+		  types.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed()
+				  .thenComparing(type -> type.isWildcardType() || type.isWildcardSubtype()));
+		  for (MediaType type : types) {
+			  if (type.getQualityValue() == 0) {
+				  continue;
+			  }
+			  if (type.isWildcardType() || type.isWildcardSubtype()) {
+				  return null;
+			  }
+			  if (cborConverter.canWrite(ProductDTO.class, type)) {
+				  return cborConverter;
+			  }
+			  if (smileConverter.canWrite(ProductDTO.class, type)) {
+				  return smileConverter;
+			  }
+			  if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+				  return null;
+			  }
+		  }
+		  return null;
+	  }
+	  
+	  //strong ETags, the catalog one changes on any Product change, the Product one on a change of that Product
+	  private String catalogETag() {
+		  return "\"" + ETAG_PREFIX + "-c" + productCatalogIndex.getCatalogVersion() + "-" + format() + "\"";
+	  }
+	  
+	  private String productETag(ProductCatalogIndex.Versioned product) {
+		  return "\"" + ETAG_PREFIX + "-p" + product.getVersion() + "-" + format() + "\"";
+	  }
+	  
+	  //The same URL answers JSON, CBOR or Smile depending on Accept: each format has its own ETag, and Vary tells
+	  //the caches (304s included) to keep them apart
+	  private String format() {
+		  varyByAccept();
+		  AbstractJackson2HttpMessageConverter binary = binaryConverter();
+		  return binary == null ? "json" : binary == cborConverter ? "cbor" : "smile";
+	  }
+	  
+	  private void varyByAccept() {
+		  if (!httpResponse.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+			  httpResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		  }
+	  }
 }
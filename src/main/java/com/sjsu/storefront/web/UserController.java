@@ -9,11 +9,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.sjsu.storefront.common.AuthNCheck;
@@ -23,6 +25,7 @@ import com.sjsu.storefront.common.DuplicateResourceException;
 import com.sjsu.storefront.common.NotAuthenticated;
 import com.sjsu.storefront.common.OrderStatus;
 import com.sjsu.storefront.common.ResourceNotFoundException;
+import com.sjsu.storefront.common.SparseFields;
 import com.sjsu.storefront.common.WorkflowException;
 import com.sjsu.storefront.data.model.ShoppingCart;
 import com.sjsu.storefront.data.model.DTO.AddressDTO;
@@ -36,6 +39,10 @@ import com.sjsu.storefront.data.model.DTO.UserLoginDTO;
 import com.sjsu.storefront.web.services.OrderService;
 import com.sjsu.storefront.web.services.UserService;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.JsonPatch;
+import com.github.fge.jsonpatch.JsonPatchException;
+
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpSession;
@@ -53,6 +60,9 @@ public class UserController {
   @Autowired
   private HttpSession httpSession;
   
+  @Autowired
+  private ObjectMapper objectMapper;
+  
   private static final Logger logger = LoggerFactory.getLogger(UserController.class);
  
   @Operation(summary = "Get all users in the system. Only ADMIN users have can call this API")
@@ -174,6 +184,23 @@ public class UserController {
       }
   }
   
+  @Operation(summary = "Update only some properties of a User with a JSON Patch, eg: [{\"op\": \"replace\", \"path\": \"/phone\", \"value\": \"408-555-0100\"}]")
+  @AuthNCheck // Apply the AuthAspect to this method
+  @AuthSameUser //SAMEUSER auth check
+  @PatchMapping(path = "/{userId}", consumes = "application/json-patch+json")
+  public ResponseEntity<UserDTO> patchUser(@PathVariable Long userId, @RequestBody JsonPatch patch) throws JsonPatchException {
+	  try {
+		  return ResponseEntity.ok(userService.patchUser(userId, patch));
+	  }
+      catch(EntityNotFoundException enf) {
+    	  return ResponseEntity.notFound().build();
+      }
+	  catch(DuplicateResourceException de) {
+		  logger.info("Patch of User {} rejected: {}", userId, de.getMessage());
+          return ResponseEntity.status(HttpStatus.CONFLICT).build();
+	  }
+  }
+  
   //TODO SameUser Auth
   @Operation(summary = "Update a user's Address given User's id, the whole Address object needs to be passed in the request")
   @PutMapping("/{userId}/address")
@@ -204,23 +231,28 @@ public class UserController {
   }
   
   //TODO give an end point for Open Orders, Shipped Orders and Delivered orders with SORT option
-  @Operation(summary = "Get the Logged in User's  Orders, filtered by the OrderStatus requested")
+  @Operation(summary = "Get the Logged in User's  Orders, filtered by the OrderStatus requested. "
+  		+ "Use fields to only get some of the properties eg: ?fields=orderId,orderStatus,totalCost")
   @AuthNCheck // Apply the AuthAspect to this method
   @AuthSameUser //SAMEUSER auth check
   @GetMapping("/{userId}/orders/status/{status}")
-  public List<OrderDTO> getOrdersByStatusForUser(@PathVariable Long userId, @PathVariable OrderStatus status) {
+  public Object getOrdersByStatusForUser(@PathVariable Long userId, @PathVariable OrderStatus status,
+		  @RequestParam(required = false) String fields) {
       UserDTO user = userService.findUserById(userId);
-      return orderService.getOrdersByStatusForUser(user, status);
+      List<OrderDTO> orders = orderService.getOrdersByStatusForUser(user, status);
+      return SparseFields.apply(objectMapper, orders, fields);
   }
   
   //TODO give an end point for all orders with SORT option
-  @Operation(summary = "Get the User's (for the USer Id provided) Orders")
+  @Operation(summary = "Get the User's (for the USer Id provided) Orders. "
+  		+ "Use fields to only get some of the properties eg: ?fields=orderId,orderStatus,totalCost")
   @AuthNCheck // Apply the AuthAspect to this method
   @AuthSameUser //SAMEUSER auth check
   @GetMapping("/{userId}/orders")
-  public List<OrderDTO> getAllOrdersByUser(@PathVariable Long userId) {
+  public Object getAllOrdersByUser(@PathVariable Long userId, @RequestParam(required = false) String fields) {
       UserDTO user = userService.findUserById(userId);
-      return orderService.getOrdersForUser(user);
+      List<OrderDTO> orders = orderService.getOrdersForUser(user);
+      return SparseFields.apply(objectMapper, orders, fields);
   }
   
   @AuthSameUser //SAMEUSER auth check
@@ -1,7 +1,5 @@
 package com.sjsu.storefront.web.services;
 
-import java.util.List;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -11,8 +9,10 @@ import com.sjsu.storefront.data.model.CartItem;
 import com.sjsu.storefront.data.model.Product;
 import com.sjsu.storefront.data.model.ShoppingCart;
 import com.sjsu.storefront.data.model.DTO.CartItemDTO;
+import com.sjsu.storefront.data.respository.CartItemRepository;
 import com.sjsu.storefront.data.respository.ProductRepository;
 import com.sjsu.storefront.data.respository.ShoppingCartRepository;
+import com.sjsu.storefront.web.services.catalog.ProductPopularity;
 
 import jakarta.transaction.Transactional;
 
@@ -25,8 +25,14 @@ public class CartServiceImpl implements CartService{
 	@Autowired
 	ProductRepository productRepository;
 	
+	@Autowired
+	CartItemRepository cartItemRepository;
+	
 	@Autowired
 	ProductService productService;
+	
+	@Autowired
+	ProductPopularity productPopularity;
 
 	@Override
 	public ShoppingCart getShoppingCartById(Long id) {
@@ -39,15 +45,31 @@ public class CartServiceImpl implements CartService{
 	  ShoppingCart existingCart = shoppingCartRepository.findById(cartId).orElse(null);
       if (existingCart != null) {
     	  
-    	CartItem cartItem = new CartItem();
 	    Product prod = productRepository.findById(item.getProductId())
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id " + item.getProductId()));
 
-    	cartItem.setProduct(prod);
-    	cartItem.setQuantity(item.getQuantity());
-		existingCart.addItem(cartItem);
+		//the line of the Product in this cart, the other lines are not loaded
+		CartItem cartItem = cartItemRepository.findByCartIdAndProductId(cartId, prod.getId());
+		if(cartItem != null) {
+			//just increment the count of the CartItem for that product
+			int newQty = cartItem.getQuantity()+ item.getQuantity();
+			if(newQty <= prod.getQuantityInStock()) { //if there is still enough in inventory
+				cartItem.setQuantity(newQty);
+			}
+			else {
+				throw new WorkflowException("Not enough Inventory for " + prod.getName());
+			}
+		}
+		else {
+			cartItem = new CartItem();
+			cartItem.setProduct(prod);
+			cartItem.setQuantity(item.getQuantity());
+			existingCart.addItem(cartItem);
+			cartItemRepository.save(cartItem);
+		}
 		updateShippingAndTotalCost(existingCart);
 		ShoppingCart updatedCart = shoppingCartRepository.save(existingCart);
+		productPopularity.record(ProductPopularity.Event.ADD_TO_CART, prod.getId());
 		return updatedCart;
       
       }
@@ -79,15 +101,12 @@ public class CartServiceImpl implements CartService{
 	  ShoppingCart existingCart = shoppingCartRepository.findById(cartId).orElse(null);
       if (existingCart != null) {
 		
-		List<CartItem> cartItems = existingCart.getItems();
-		//find the Product in cart
-		for( CartItem ci : cartItems) {
-			if(ci.getId() == cartItemId) { //If product is already in the Cart
-				cartItems.remove(ci);
-				updateInventory(ci.getProduct(), ci.getQuantity());
-				updateShippingAndTotalCost(existingCart);
-				break;
-			}
+		//the line only when it is in this cart, deleted on its own
+		CartItem ci = cartItemRepository.findByIdAndCartId(cartItemId, cartId);
+		if(ci != null) {
+			updateInventory(ci.getProduct(), ci.getQuantity());
+			cartItemRepository.delete(ci);
+			updateShippingAndTotalCost(existingCart);
 		}
 		return shoppingCartRepository.save(existingCart);
       }
@@ -102,19 +121,14 @@ public class CartServiceImpl implements CartService{
 	//it should update the Total Weight, Total Cost and Shipping Cost accordingly
 	public void updateCartWithItem(ShoppingCart existingCart, CartItem item) throws Exception {
 		
-		Product product = item.getProduct();
 		int qty = item.getQuantity();
 		
-		CartItem theItem = null;
-		List<CartItem> cartItems = existingCart.getItems();
+		//find the Product in cart, the single line of the (cart, Product) key
+		CartItem theItem = cartItemRepository.findByCartIdAndProductId(existingCart.getId(), item.getProduct().getId());
 		
-		//find the Product in cart
-		for( CartItem ci : cartItems) {
-			if(ci.getProduct().equals(product)) { //If product is already in the Cart
-				theItem = ci;
-				break;
-			}
-		}
+		//the managed Product, not the copy sent in the request, is the one whose inventory is updated
+		Product product = theItem != null ? theItem.getProduct() : productRepository.findById(item.getProduct().getId())
+				.orElseThrow(() -> new ResourceNotFoundException("Product not found with id " + item.getProduct().getId()));
 
 		int origQty = 0;
 		int diffInQuantity = 0;
@@ -129,7 +143,7 @@ public class CartServiceImpl implements CartService{
 			}
 			else { //delete the product from the cart
 				updateInventory(product,theItem.getQuantity()); //give back the num items in the cart
-				cartItems.remove(theItem);
+				cartItemRepository.delete(theItem);
 			}
 		}
 		
@@ -141,7 +155,8 @@ public class CartServiceImpl implements CartService{
 				CartItem ci = new CartItem();
 				ci.setProduct(product);
 				ci.setQuantity(qty);
-				cartItems.add(ci);				
+				existingCart.addItem(ci);
+				cartItemRepository.save(ci);
 			}
 		}		
 	}
@@ -151,6 +166,7 @@ public class CartServiceImpl implements CartService{
 		int ineventoryCount = product.getQuantityInStock() + quantity;
 		if(ineventoryCount > 0) {
 			product.setQuantityInStock(ineventoryCount); //update inventory
+			productService.productChanged(product);
 		}
 		else {
 			throw new Exception("Not enough Inventory to Update the Cart");
@@ -160,15 +176,12 @@ public class CartServiceImpl implements CartService{
 	
 	private void updateShippingAndTotalCost(ShoppingCart existingCart) {
 		
-		List<CartItem> cartItems = existingCart.getItems();
+		//summed by the database over the lines of the cart (the pending line changes are flushed first)
+		Object[] totals = cartItemRepository.sumWeightAndCost(existingCart.getId()).get(0);
 		
-		long totalWeight = 0;
-		long totalProductCost = 0;
+		long totalWeight = ((Number) totals[0]).longValue();
+		long totalProductCost = ((Number) totals[1]).longValue();
 		
-		for( CartItem ci : cartItems) {
-			totalWeight += ci.getProduct().getWeight() * ci.getQuantity();		
-			totalProductCost += ci.getProduct().getPrice() * ci.getQuantity();
-		}
 		existingCart.setTotalWeight(totalWeight);
 		existingCart.setTotalProductCost(totalProductCost);
 		
@@ -1,34 +1,102 @@
 package com.sjsu.storefront.web.services;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
+import com.github.fge.jsonpatch.JsonPatch;
+import com.github.fge.jsonpatch.JsonPatchException;
 import com.sjsu.storefront.common.DuplicateResourceException;
 import com.sjsu.storefront.common.ProductCategory;
+import com.sjsu.storefront.common.ProductSort;
 import com.sjsu.storefront.common.ResourceNotFoundException;
 import com.sjsu.storefront.data.model.Product;
 import com.sjsu.storefront.data.model.DTO.ImageDTO;
+import com.sjsu.storefront.data.model.DTO.ProductAdjustmentDTO;
+import com.sjsu.storefront.data.model.DTO.ProductBatchDTO;
+import com.sjsu.storefront.data.model.DTO.ProductChangesDTO;
 import com.sjsu.storefront.data.model.DTO.ProductDTO;
+import com.sjsu.storefront.data.model.DTO.ProductFacetsDTO;
+import com.sjsu.storefront.data.model.DTO.ProductIngestReportDTO;
+import com.sjsu.storefront.data.model.DTO.ProductPageDTO;
 
 public interface ProductService {
 	
 	public List<ProductDTO> findProductsByName(String searchTerm);
 	
+	public List<ProductDTO> findProductsByNameFuzzy(String searchTerm, int page, int size);
+	
+	public List<String> suggestProductNames(String prefix, int limit);
+	
 	public List<ProductDTO> findProductsByCategory(ProductCategory category);
 	
+	public ProductFacetsDTO findProductsByFacets(List<ProductCategory> categories, List<String> priceBands,
+			List<String> weightBands, Boolean inStock, int page, int size);
+	
 	public void deleteProduct(Long id);
 
 	public void deleteImage(Long id, Long imgId) throws ResourceNotFoundException;
+	
+	//returns the number of images deleted, ids that are not images of the Product are ignored
+	public int deleteImages(Long id, List<Long> imgIds);
 
 
 	public List<ProductDTO> getAllProducts();
+	
+	//same as getAllProducts but the images are not loaded (the lists are empty)
+	public List<ProductDTO> getAllProductsWithoutImages();
+	
+	//writes every Product as one line of JSON (NDJSON), memory use does not depend on the catalog size
+	public void exportProducts(OutputStream out) throws IOException;
+	
+	//category is optional, after is the cursor returned with the previous page (null for the first page)
+	public ProductPageDTO getProductsPage(ProductCategory category, String after, int limit, ProductSort sort);
 
 	public ProductDTO getProduct(Long id) throws ResourceNotFoundException;
+	
+	//resolves a set of Products at once, keeping the requested order and reporting the ids not found
+	public ProductBatchDTO getProducts(List<Long> ids);
+	
+	//"frequently bought together": the Products most often ordered with this one, most frequent first
+	public List<ProductDTO> getCompanions(Long id, int limit) throws ResourceNotFoundException;
+	
+	//same for several Products (e.g. a cart), the Products themselves are left out
+	public List<ProductDTO> getCompanions(List<Long> ids, int limit);
 
 	void addImage(Long id, ImageDTO image) throws Exception;
+	
+	//returns the added images with their ids
+	List<ImageDTO> addImages(Long id, List<ImageDTO> images) throws ResourceNotFoundException;
+	
+	//stores the image bytes locally and adds it to the Product (once, the same image uploaded again is not added again)
+	ImageDTO uploadImage(Long id, InputStream in, String contentType) throws ResourceNotFoundException, IOException;
 
 	public List<String> getProductCategories();
 
 	ProductDTO createProduct(ProductDTO product) throws DuplicateResourceException;
+	
+	//creates many Products at once, duplicates (by name) are skipped and reported instead of failing the whole request
+	ProductIngestReportDTO bulkCreateProducts(List<ProductDTO> products);
+	
+	//same as bulkCreateProducts for a stream of Products (NDJSON or a JSON array) of any size,
+	//the report only lists the Products that were not created. jobId is optional, it names the import for getImportProgress
+	ProductIngestReportDTO importProducts(InputStream in, String jobId) throws IOException;
+	
+	ProductIngestReportDTO getImportProgress(String jobId) throws ResourceNotFoundException;
 
 	ProductDTO updateProduct(Long id, ProductDTO product) throws ResourceNotFoundException;
+	
+	//changes the price and/or stock of every Product of the category in one statement, returns the number of Products changed
+	int adjustCategory(ProductCategory category, ProductAdjustmentDTO adjustment);
+	
+	//applies a JSON Patch (RFC 6902) to the Product, only the changed columns are written
+	ProductDTO patchProduct(Long id, JsonPatch patch) throws ResourceNotFoundException, JsonPatchException;
+	
+	//Products created/changed and deleted after the since sequence (0 for everything), at most limit changes at a time.
+	//Only the latest state of each Product is returned whatever the number of changes it had
+	ProductChangesDTO getChanges(long since, int limit);
+	
+	//to be called when a Product entity is modified outside this service (e.g. inventory updates from the cart)
+	void productChanged(Product product);
 }
@@ -1,26 +1,76 @@
 package com.sjsu.storefront.web.services;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.JsonPatch;
+import com.github.fge.jsonpatch.JsonPatchException;
 import com.sjsu.storefront.common.DuplicateResourceException;
 import com.sjsu.storefront.common.ProductCategory;
+import com.sjsu.storefront.common.ProductChangeType;
+import com.sjsu.storefront.common.ProductCursor;
+import com.sjsu.storefront.common.ProductSort;
 import com.sjsu.storefront.common.ResourceNotFoundException;
 import com.sjsu.storefront.data.model.Image;
 import com.sjsu.storefront.data.model.Product;
+import com.sjsu.storefront.data.model.ProductChange;
 import com.sjsu.storefront.data.model.DTO.ImageDTO;
+import com.sjsu.storefront.data.model.DTO.ProductAdjustmentDTO;
+import com.sjsu.storefront.data.model.DTO.ProductBatchDTO;
+import com.sjsu.storefront.data.model.DTO.ProductChangesDTO;
 import com.sjsu.storefront.data.model.DTO.ProductDTO;
+import com.sjsu.storefront.data.model.DTO.ProductFacetsDTO;
+import com.sjsu.storefront.data.model.DTO.ProductIngestReportDTO;
+import com.sjsu.storefront.data.model.DTO.ProductIngestResultDTO;
+import com.sjsu.storefront.data.model.DTO.ProductPageDTO;
 import com.sjsu.storefront.data.respository.ImageRepository;
+import com.sjsu.storefront.data.respository.OrderItemRepository;
+import com.sjsu.storefront.data.respository.ProductChangeRepository;
 import com.sjsu.storefront.data.respository.ProductRepository;
+import com.sjsu.storefront.web.services.catalog.ProductCatalogIndex;
+import com.sjsu.storefront.web.services.catalog.ProductCompanions;
+import com.sjsu.storefront.web.services.catalog.ProductJsonCache;
+import com.sjsu.storefront.web.services.catalog.ProductUpdatePublisher;
+import com.sjsu.storefront.web.services.images.ImageBlobStore;
+import com.sjsu.storefront.web.services.images.ImageVariantCache;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 
 @Service
@@ -32,18 +82,130 @@ public class ProductServiceImpl implements ProductService {
 	@Autowired
     ImageRepository imageRepository;
 	
+	@Autowired
+	ProductChangeRepository productChangeRepository;
+	
+	@Autowired
+	OrderItemRepository orderItemRepository;
+	
+	@Autowired
+	ProductCatalogIndex productCatalogIndex;
+	
+	@Autowired
+	ProductJsonCache productJsonCache;
+	
+	@Autowired
+	ProductUpdatePublisher productUpdatePublisher;
+	
+	@Autowired
+	ProductCompanions productCompanions;
+	
+	@Autowired
+	ImageBlobStore imageBlobStore;
+	
+	@Autowired
+	ImageVariantCache imageVariantCache;
+	
+	@Autowired
+	ObjectMapper objectMapper;
+	
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+	
     private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
+    
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    
+    private static final int ORDER_HISTORY_CHUNK_SIZE = 5000;
+    
+    private static final int MAX_CHANGES_PAGE_SIZE = 1000;
+    //longer than any transaction that records Product changes (a bulk ingestion chunk is the longest)
+    private static final long CHANGE_SETTLE_MILLIS = 10_000;
+    
+    //Products committed per transaction by a bulk ingestion, and flushed (one JDBC batch per table) at a time
+    private static final int INGEST_CHUNK_SIZE = 500;
+    private static final int INGEST_FLUSH_SIZE = 50;
+    
+    //problems kept in the report of a streamed import, and number of import reports kept for progress queries
+    private static final int MAX_IMPORT_REPORT_ITEMS = 1000;
+    private static final int MAX_IMPORT_JOBS = 100;
+    
+    private final Map<String, ProductIngestReportDTO> importJobs = new LinkedHashMap<String, ProductIngestReportDTO>(16, 0.75f, false) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+    	protected boolean removeEldestEntry(Map.Entry<String, ProductIngestReportDTO> eldest) {
+    		return size() > MAX_IMPORT_JOBS;
+    	}
+    };
 
 
+    //Load the in memory catalog once everything (including DataInitialization) is up
+    @EventListener(ApplicationReadyEvent.class)
     @Transactional
+    public void loadCatalogIndex() {
+    	//changes committed while the Products are read are kept by the index and applied over them
+    	productCatalogIndex.rebuild(() -> {
+    		List<ProductDTO> products = new ArrayList<ProductDTO>();
+    		for(Product prod : productRepository.findAll()) {
+    			products.add(new ProductDTO(prod));
+    		}
+    		logger.info("Loaded {} Products into the catalog index", products.size());
+    		return products;
+    	});
+    	productJsonCache.clear();
+    }
+    
+    //"frequently bought together" counts, from every order placed so far
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadCompanions() {
+    	productCompanions.rebuild(this::loadOrderBaskets);
+    }
+    
+    //the Product ids of every order, read in chunks of order items (columns only)
+    private Collection<long[]> loadOrderBaskets() {
+    	Map<Object, List<Long>> orders = new HashMap<Object, List<Long>>();
+    	long lastId = 0;
+    	List<Object[]> chunk;
+    	do {
+    		chunk = orderItemRepository.findChunkAfterId(lastId, PageRequest.of(0, ORDER_HISTORY_CHUNK_SIZE));
+    		for (Object[] row : chunk) {
+    			lastId = (Long) row[0];
+    			orders.computeIfAbsent(row[1], k -> new ArrayList<Long>(4)).add((Long) row[2]);
+    		}
+    	} while (chunk.size() == ORDER_HISTORY_CHUNK_SIZE);
+    	
+    	List<long[]> baskets = new ArrayList<long[]>(orders.size());
+    	for (List<Long> productIds : orders.values()) {
+    		baskets.add(productIds.stream().mapToLong(Long::longValue).toArray());
+    	}
+    	logger.info("Loaded {} orders into the Product companions", baskets.size());
+    	return baskets;
+    }
+
+    //served from the in memory trigram index, no database access
     @Override
     public List<ProductDTO> findProductsByName(String searchTerm) {
-        List<Product> prdts = productRepository.findByProductNameContaining(searchTerm);
-        List<ProductDTO> products = new ArrayList<ProductDTO>();
-        for(Product prod : prdts) {
-        	products.add(new ProductDTO(prod));
-        }
-        return products;
+        return productCatalogIndex.findByName(searchTerm);
+    }
+    
+    @Override
+    public List<ProductDTO> findProductsByNameFuzzy(String searchTerm, int page, int size) {
+    	int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    	return productCatalogIndex.findByNameFuzzy(searchTerm, Math.max(page, 0), pageSize);
+    }
+    
+    //type-ahead, served from the prefix trie in the catalog index, no database access
+    @Override
+    public List<String> suggestProductNames(String prefix, int limit) {
+    	return productCatalogIndex.suggest(prefix, Math.max(limit, 0));
     }
     
     @Transactional
@@ -57,6 +219,14 @@ public class ProductServiceImpl implements ProductService {
         return products;
     }
 
+    //evaluated on the in memory facet bitsets, no database access
+    @Override
+    public ProductFacetsDTO findProductsByFacets(List<ProductCategory> categories, List<String> priceBands,
+    		List<String> weightBands, Boolean inStock, int page, int size) {
+    	int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    	return productCatalogIndex.facetSearch(categories, priceBands, weightBands, inStock, Math.max(page, 0), pageSize);
+    }
+
 	@Transactional
 	@Override
 	public ProductDTO updateProduct(Long id, ProductDTO product) throws ResourceNotFoundException {
@@ -65,36 +235,204 @@ public class ProductServiceImpl implements ProductService {
 	    	throw new ResourceNotFoundException("Product not found");
 	    }
 	    existingItem.set(product);
-	    return new ProductDTO(productRepository.save(existingItem));
+	    //flushed so the new images have their ids in the returned (and indexed) Product
+	    productRepository.flush();
+	    ProductDTO updated = new ProductDTO(existingItem);
+	    recordChange(id, ProductChangeType.UPSERT);
+	    catalogChanged(updated);
+	    return updated;
+	}
+
+	@Transactional
+	@Override
+	public int adjustCategory(ProductCategory category, ProductAdjustmentDTO adjustment) {
+		Double percent = adjustment.getPricePercent();
+		Integer quantity = adjustment.getQuantityInStock();
+		if (percent == null && quantity == null) {
+			throw new IllegalArgumentException("Nothing to adjust, give pricePercent and/or quantityInStock");
+		}
+		if (percent != null && percent <= -100) {
+			throw new IllegalArgumentException("pricePercent must be greater than -100");
+		}
+		if (quantity != null && quantity < 0) {
+			throw new IllegalArgumentException("quantityInStock can't be negative");
+		}
+		
+		int changed;
+		if (percent != null && quantity != null) {
+			changed = productRepository.adjustInCategory(category, 1 + percent / 100, quantity);
+		} else if (percent != null) {
+			changed = productRepository.scalePriceInCategory(category, 1 + percent / 100);
+		} else {
+			changed = productRepository.setStockInCategory(category, quantity);
+		}
+		logger.info("Adjusted {} {} Products: {}", changed, category, adjustment);
+		
+		//set-based too: one INSERT ... SELECT for the change feed, and one query reading back the new prices/stock
+		//(columns only) which are applied to the indexed copies
+		if (changed > 0) {
+			productChangeRepository.recordUpsertsInCategory(category.name(), System.currentTimeMillis());
+			List<ProductDTO> adjusted = new ArrayList<ProductDTO>();
+			for (Object[] row : productRepository.findPriceAndStockInCategory(category)) {
+				ProductDTO current = productCatalogIndex.get((Long) row[0]);
+				if (current == null) {
+					//not indexed (yet), the index load reads it from the database
+					continue;
+				}
+				ProductDTO product = new ProductDTO(current.getId(), current.getName(), current.getDescription(), (Double) row[1],
+						current.getWeight(), (Integer) row[2], current.getProductCategory(), current.getImages());
+				productUpdatePublisher.publish(product);
+				adjusted.add(product);
+			}
+			afterCommit(() -> {
+				for (ProductDTO product : adjusted) {
+					productCatalogIndex.upsert(product);
+					productJsonCache.evict(product.getId());
+				}
+			});
+		}
+		return changed;
+	}
+
+	@Transactional
+	@Override
+	public ProductDTO patchProduct(Long id, JsonPatch patch) throws ResourceNotFoundException, JsonPatchException {
+		Product existingItem = productRepository.findById(id).orElse(null);
+	    if (existingItem == null) {
+	    	throw new ResourceNotFoundException("Product not found");
+	    }
+	    JsonNode current = objectMapper.valueToTree(new ProductDTO(existingItem));
+	    JsonNode patched = patch.apply(current);
+	    if (!patched.path("id").equals(current.path("id"))) {
+	    	throw new IllegalArgumentException("The id of a Product can't be changed");
+	    }
+	    ProductDTO item;
+	    try {
+	    	item = objectMapper.treeToValue(patched, ProductDTO.class);
+	    } catch (JsonProcessingException e) {
+	    	throw new IllegalArgumentException("Patched Product is not valid: " + e.getOriginalMessage());
+	    }
+	    //dirty checking (with @DynamicUpdate) turns this into an UPDATE of the changed columns only, if any
+	    if (patched.path("images").equals(current.path("images"))) {
+	    	existingItem.setDetails(item);
+	    } else {
+	    	existingItem.set(item);
+	    	productRepository.flush();
+	    }
+	    ProductDTO updated = new ProductDTO(existingItem);
+	    recordChange(id, ProductChangeType.UPSERT);
+	    catalogChanged(updated);
+	    return updated;
 	}
 
 	@Transactional
 	@Override
 	public void deleteProduct(Long id) {
 	    productRepository.deleteById(id);
+	    recordChange(id, ProductChangeType.DELETE);
+	    afterCommit(() -> {
+	    	productCatalogIndex.remove(id);
+	    	productJsonCache.evict(id);
+	    	productCompanions.remove(id);
+	    });
 	}
 
+	//Image changes go straight to the images table, the Product and its other images are never loaded.
+	//The catalog index copy of the Product is patched the same way instead of being rebuilt from the database
 	@Transactional
 	@Override
 	public void deleteImage(Long id, Long imgId) throws ResourceNotFoundException {
-	  Product existingProduct = productRepository.findById(id).orElse(null);
-      if (existingProduct == null) {
-         throw new ResourceNotFoundException("Product not found");
-      }
-      existingProduct.deleteImage(imgId);
-      productRepository.save(existingProduct);
+	  if (imageRepository.deleteFromProduct(id, imgId) == 0) {
+		  throw new ResourceNotFoundException("Image not found");
+	  }
+	  imagesChanged(id, Collections.singleton(imgId), Collections.emptyList());
+	}
+	
+	@Transactional
+	@Override
+	public int deleteImages(Long id, List<Long> imgIds) {
+	  if (imgIds.isEmpty()) {
+		  return 0;
+	  }
+	  Set<Long> ids = new HashSet<Long>(imgIds);
+	  int deleted = imageRepository.deleteAllFromProduct(id, ids);
+	  if (deleted > 0) {
+		  imagesChanged(id, ids, Collections.emptyList());
+	  }
+	  return deleted;
 	}
 
 	@Transactional
 	@Override
 	public void addImage(Long id, ImageDTO image) throws Exception {
-	  Product existingProduct = productRepository.findById(id).orElse(null);
-      if (existingProduct == null) {
-          throw new ResourceNotFoundException("Product not found");
-      }
-      Image img = new Image(image,existingProduct);
-      existingProduct.addImage(img);
-      productRepository.save(existingProduct);
+	  addImages(id, Collections.singletonList(image));
+	}
+	
+	@Transactional
+	@Override
+	public List<ImageDTO> addImages(Long id, List<ImageDTO> images) throws ResourceNotFoundException {
+	  checkProductExists(id);
+	  return insertImages(id, images);
+	}
+	
+	//not @Transactional: the upload is written to disk first, the transaction (and its connection) only covers the insert
+	@Override
+	public ImageDTO uploadImage(Long id, InputStream in, String contentType) throws ResourceNotFoundException, IOException {
+	  checkProductExists(id);
+	  String name = imageBlobStore.store(in, contentType);
+	  //resized in the background so the list pages find them ready
+	  imageVariantCache.prepare(name);
+	  String link = ImageBlobStore.url(name);
+	  return transactionTemplate.execute(status -> {
+		  Optional<Image> existing = imageRepository.findFirstByProductIdAndImageLink(id, link);
+		  if (existing.isPresent()) {
+			  return new ImageDTO(existing.get());
+		  }
+		  return insertImages(id, Collections.singletonList(new ImageDTO(0, link))).get(0);
+	  });
+	}
+	
+	private List<ImageDTO> insertImages(Long id, List<ImageDTO> images) {
+	  //a reference, not a load: only its id is needed for the product_id column
+	  Product product = productRepository.getReferenceById(id);
+	  List<Image> newImages = new ArrayList<Image>();
+	  for (ImageDTO image : images) {
+		  newImages.add(new Image(0, image.getImageLink(), product));
+	  }
+	  //inserted as one JDBC batch
+	  List<ImageDTO> added = new ArrayList<ImageDTO>();
+	  for (Image img : imageRepository.saveAllAndFlush(newImages)) {
+		  added.add(new ImageDTO(img));
+	  }
+	  imagesChanged(id, Collections.emptySet(), added);
+	  return added;
+	}
+	
+	//the index has every Product, the database is only asked when it is not there
+	private void checkProductExists(Long id) throws ResourceNotFoundException {
+	  if (productCatalogIndex.get(id) == null && !productRepository.existsById(id)) {
+		  throw new ResourceNotFoundException("Product not found");
+	  }
+	}
+	
+	private void imagesChanged(Long id, Set<Long> removed, List<ImageDTO> added) {
+	  recordChange(id, ProductChangeType.UPSERT);
+	  afterCommit(() -> {
+		  ProductDTO current = productCatalogIndex.get(id);
+		  if (current != null) {
+			  //the indexed Product is shared with readers, it gets replaced not modified
+			  List<ImageDTO> images = new ArrayList<ImageDTO>();
+			  for (ImageDTO img : current.getImages()) {
+				  if (!removed.contains(img.getId())) {
+					  images.add(img);
+				  }
+			  }
+			  images.addAll(added);
+			  productCatalogIndex.upsert(new ProductDTO(current.getId(), current.getName(), current.getDescription(), current.getPrice(),
+					  current.getWeight(), current.getQuantityInStock(), current.getProductCategory(), images));
+		  }
+		  productJsonCache.evict(id);
+	  });
 	}
 
 	@Transactional
@@ -105,7 +443,300 @@ public class ProductServiceImpl implements ProductService {
 			throw new DuplicateResourceException("Product already Exists");
 		}
 		Product prod = new Product(product);
-	    return new ProductDTO(productRepository.save(prod));
+	    ProductDTO created = new ProductDTO(productRepository.save(prod));
+	    recordChange(created.getId(), ProductChangeType.UPSERT);
+	    afterCommit(() -> productCatalogIndex.upsert(created));
+	    return created;
+	}
+	
+	//Bulk version of createProduct: one duplicate check query and one transaction per chunk,
+	//inserts go out as JDBC batches (hibernate.jdbc.batch_size) and the persistence context is
+	//cleared as it goes so memory stays flat whatever the size of the catalog
+	@Override
+	public ProductIngestReportDTO bulkCreateProducts(List<ProductDTO> products) {
+		ProductIngestReportDTO report = new ProductIngestReportDTO();
+		ingestProducts(products.iterator(), report);
+		return report;
+	}
+	
+	//Streamed version of bulkCreateProducts: the body is parsed one Product at a time and only one chunk is held
+	//in memory, the upload is read no faster than the chunks are committed
+	@Override
+	public ProductIngestReportDTO importProducts(InputStream in, String jobId) throws IOException {
+		ProductIngestReportDTO report = ProductIngestReportDTO.problemsOnly(jobId == null ? UUID.randomUUID().toString() : jobId, MAX_IMPORT_REPORT_ITEMS);
+		synchronized (importJobs) {
+			ProductIngestReportDTO running = importJobs.get(report.getJobId());
+			if (running != null && !running.isFinished()) {
+				throw new IllegalArgumentException("Import " + report.getJobId() + " is already running");
+			}
+			importJobs.put(report.getJobId(), report);
+		}
+		
+		List<ProductDTO> chunk = new ArrayList<ProductDTO>(INGEST_CHUNK_SIZE);
+		Map<Integer, String> rejected = new HashMap<Integer, String>();
+		int index = 0;
+		int chunkStart = 0;
+		String error = null;
+		//reads NDJSON (whitespace separated values) as well as a single JSON array
+		try (MappingIterator<ProductDTO> products = objectMapper.readerFor(ProductDTO.class).readValues(in)) {
+			while (true) {
+				try {
+					if (!products.hasNextValue()) {
+						break;
+					}
+					chunk.add(products.nextValue());
+				} catch (JsonParseException e) {
+					//not JSON anymore, no way to find where the next Product starts
+					error = "Malformed JSON after " + index + " Products: " + e.getOriginalMessage();
+					break;
+				} catch (JsonMappingException e) {
+					//valid JSON but not a Product, the iterator skips to the next value
+					rejected.put(chunk.size(), e.getOriginalMessage());
+					chunk.add(null);
+				}
+				index++;
+				if (chunk.size() == INGEST_CHUNK_SIZE) {
+					ingestChunk(chunk, chunkStart, rejected, report);
+					chunk.clear();
+					rejected.clear();
+					chunkStart = index;
+					logger.info("Import {} progress: {}", report.getJobId(), report);
+				}
+			}
+			if (!chunk.isEmpty()) {
+				ingestChunk(chunk, chunkStart, rejected, report);
+			}
+		} catch (IOException | RuntimeException e) {
+			report.finish(e.getMessage());
+			throw e;
+		}
+		report.finish(error);
+		logger.info("Import {} done: {}", report.getJobId(), report);
+		return report;
+	}
+	
+	@Override
+	public ProductIngestReportDTO getImportProgress(String jobId) throws ResourceNotFoundException {
+		ProductIngestReportDTO report;
+		synchronized (importJobs) {
+			report = importJobs.get(jobId);
+		}
+		if (report == null) {
+			throw new ResourceNotFoundException("Import not found");
+		}
+		return report;
+	}
+	
+	private void ingestProducts(Iterator<ProductDTO> products, ProductIngestReportDTO report) {
+		List<ProductDTO> chunk = new ArrayList<ProductDTO>(INGEST_CHUNK_SIZE);
+		int index = 0;
+		int chunkStart = 0;
+		while (products.hasNext()) {
+			chunk.add(products.next());
+			index++;
+			if (chunk.size() == INGEST_CHUNK_SIZE) {
+				ingestChunk(chunk, chunkStart, Collections.emptyMap(), report);
+				chunk.clear();
+				chunkStart = index;
+			}
+		}
+		if (!chunk.isEmpty()) {
+			ingestChunk(chunk, chunkStart, Collections.emptyMap(), report);
+		}
+		report.finish(null);
+		logger.info("Bulk ingestion done: {}", report);
+	}
+	
+	//rejected holds the reason for the null entries of the chunk (Products that could not be read), by position in the chunk.
+	//Duplicates of Products from earlier chunks are found by the database check as those are already committed
+	private void ingestChunk(List<ProductDTO> chunk, int chunkStart, Map<Integer, String> rejected, ProductIngestReportDTO report) {
+		ProductIngestResultDTO[] results = new ProductIngestResultDTO[chunk.size()];
+		List<String> names = new ArrayList<String>();
+		for (ProductDTO product : chunk) {
+			if (product != null && product.getName() != null && !product.getName().isBlank()) {
+				names.add(product.getName());
+			}
+		}
+		
+		List<ProductDTO> created = new ArrayList<ProductDTO>();
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				Set<String> existing = new HashSet<String>();
+				if (!names.isEmpty()) {
+					for (String name : productRepository.findExistingNames(names)) {
+						existing.add(nameKey(name));
+					}
+				}
+				Set<String> seen = new HashSet<String>();
+				List<Product> batch = new ArrayList<Product>(INGEST_FLUSH_SIZE);
+				List<Integer> batchPositions = new ArrayList<Integer>(INGEST_FLUSH_SIZE);
+				for (int i = 0; i < chunk.size(); i++) {
+					ProductDTO product = chunk.get(i);
+					int index = chunkStart + i;
+					if (product == null || product.getName() == null || product.getName().isBlank()) {
+						String reason = rejected.getOrDefault(i, "Product name is required");
+						results[i] = new ProductIngestResultDTO(index, null, ProductIngestResultDTO.Status.INVALID, null, reason);
+						continue;
+					}
+					String name = product.getName();
+					String key = nameKey(name);
+					if (existing.contains(key) || !seen.add(key)) {
+						results[i] = new ProductIngestResultDTO(index, name, ProductIngestResultDTO.Status.DUPLICATE, null, "Product already Exists");
+						continue;
+					}
+					Product prod = new Product(newProduct(product));
+					entityManager.persist(prod);
+					batch.add(prod);
+					batchPositions.add(i);
+					if (batch.size() == INGEST_FLUSH_SIZE) {
+						flushIngested(batch, batchPositions, chunkStart, results, created);
+					}
+				}
+				flushIngested(batch, batchPositions, chunkStart, results, created);
+			});
+		} catch (RuntimeException e) {
+			//the whole chunk was rolled back, nothing of it was created
+			logger.warn("Bulk ingestion of Products {} to {} failed", chunkStart, chunkStart + chunk.size() - 1, e);
+			created.clear();
+			for (int i = 0; i < chunk.size(); i++) {
+				if (results[i] == null || results[i].getStatus() == ProductIngestResultDTO.Status.CREATED) {
+					ProductDTO product = chunk.get(i);
+					results[i] = new ProductIngestResultDTO(chunkStart + i, product == null ? null : product.getName(),
+							ProductIngestResultDTO.Status.FAILED, null, e.getMessage());
+				}
+			}
+		}
+		
+		//only once committed (and once any transaction the caller runs in commits)
+		List<ProductDTO> committed = new ArrayList<ProductDTO>(created);
+		afterCommit(() -> {
+			for (ProductDTO product : committed) {
+				productCatalogIndex.upsert(product);
+			}
+		});
+		for (ProductIngestResultDTO result : results) {
+			report.add(result);
+		}
+	}
+	
+	private void flushIngested(List<Product> batch, List<Integer> batchPositions, int chunkStart,
+			ProductIngestResultDTO[] results, List<ProductDTO> created) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		entityManager.flush();
+		//the change feed rows of the whole batch in one statement
+		List<Long> ids = new ArrayList<Long>(batch.size());
+		for (Product prod : batch) {
+			ids.add(prod.getId());
+		}
+		productChangeRepository.recordUpserts(ids, System.currentTimeMillis());
+		for (int j = 0; j < batch.size(); j++) {
+			Product prod = batch.get(j);
+			int i = batchPositions.get(j);
+			created.add(new ProductDTO(prod));
+			results[i] = new ProductIngestResultDTO(chunkStart + i, prod.getName(), ProductIngestResultDTO.Status.CREATED, prod.getId(), null);
+		}
+		entityManager.clear();
+		batch.clear();
+		batchPositions.clear();
+	}
+	
+	//names are unique ignoring case (the column collation, findByName), so are the duplicate checks of an ingestion
+	private static String nameKey(String name) {
+		return name.trim().toLowerCase(Locale.ROOT);
+	}
+	
+	//ingested Products are always new, whatever ids the submitted ones carry
+	private ProductDTO newProduct(ProductDTO product) {
+		List<ImageDTO> images = new ArrayList<ImageDTO>();
+		if (product.getImages() != null) {
+			for (ImageDTO img : product.getImages()) {
+				images.add(new ImageDTO(0, img.getImageLink()));
+			}
+		}
+		return new ProductDTO(0, product.getName(), product.getDescription(), product.getPrice(), product.getWeight(),
+				product.getQuantityInStock(), product.getProductCategory(), images);
+	}
+	
+	@Override
+	public void productChanged(Product product) {
+		recordChange(product.getId(), ProductChangeType.UPSERT);
+		catalogChanged(new ProductDTO(product));
+	}
+	
+	//new state of a changed Product for the index, the serialized copies and the subscribers
+	private void catalogChanged(ProductDTO product) {
+		productUpdatePublisher.publish(product);
+		afterCommit(() -> {
+			productCatalogIndex.upsert(product);
+			productJsonCache.evict(product.getId());
+		});
+	}
+	
+	//The in memory catalog only ever shows committed data: its updates run once the current transaction
+	//commits (right away outside of one), a rollback leaves it as it was
+	private void afterCommit(Runnable update) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					update.run();
+				}
+			});
+		} else {
+			update.run();
+		}
+	}
+	
+	private void recordChange(long productId, ProductChangeType type) {
+		productChangeRepository.save(new ProductChange(productId, type, System.currentTimeMillis()));
+	}
+	
+	//Changes are read in seq order. A seq is taken when the change is made but becomes visible when its transaction
+	//commits, so a gap can be a transaction still running: the feed stops before a recent gap and only goes past it
+	//once it is old enough to be a rollback (or ids skipped by the sequence)
+	@Transactional
+	@Override
+	public ProductChangesDTO getChanges(long since, int limit) {
+		int size = Math.min(Math.max(limit, 1), MAX_CHANGES_PAGE_SIZE);
+		List<ProductChange> changes = productChangeRepository.findAfter(since, PageRequest.of(0, size + 1));
+		boolean more = changes.size() > size;
+		long settled = System.currentTimeMillis() - CHANGE_SETTLE_MILLIS;
+		long next = since;
+		
+		//Products changed, in the order of their last change
+		Set<Long> latest = new LinkedHashSet<Long>();
+		for (ProductChange change : changes.subList(0, Math.min(size, changes.size()))) {
+			if (change.getSeq() != next + 1 && change.getChangedAt() > settled) {
+				more = true;
+				break;
+			}
+			latest.remove(change.getProductId());
+			latest.add(change.getProductId());
+			next = change.getSeq();
+		}
+		
+		//the current state comes from the database, in one query: the index may not have a just committed change
+		//yet (it is updated after commit, and empty until loaded), only the Products the database no longer has
+		//are reported deleted
+		Map<Long, Product> current = new HashMap<Long, Product>();
+		if (!latest.isEmpty()) {
+			for (Product prod : productRepository.findByIdIn(latest)) {
+				current.put(prod.getId(), prod);
+			}
+		}
+		List<ProductDTO> upserts = new ArrayList<ProductDTO>();
+		List<Long> deleted = new ArrayList<Long>();
+		for (Long id : latest) {
+			Product prod = current.get(id);
+			if (prod != null) {
+				upserts.add(new ProductDTO(prod));
+			} else {
+				deleted.add(id);
+			}
+		}
+		return new ProductChangesDTO(next, more, upserts, deleted);
 	}
 
 	@Transactional
@@ -121,14 +752,141 @@ public class ProductServiceImpl implements ProductService {
 	   return productDTOs;
 	}
 
+	@Transactional
+	@Override
+	public void exportProducts(OutputStream out) throws IOException {
+		long lastId = 0;
+		List<Product> chunk;
+		do {
+			//seek by id so every chunk costs the same, then drop the chunk from the persistence context
+			chunk = productRepository.findChunkAfterId(lastId, PageRequest.of(0, EXPORT_CHUNK_SIZE));
+			for (Product prod : chunk) {
+				out.write(objectMapper.writeValueAsBytes(new ProductDTO(prod)));
+				out.write('\n');
+				lastId = prod.getId();
+			}
+			out.flush();
+			entityManager.clear();
+		} while (chunk.size() == EXPORT_CHUNK_SIZE);
+	}
+
+	@Transactional
+	@Override
+	public ProductPageDTO getProductsPage(ProductCategory category, String after, int limit, ProductSort sort) {
+		int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+		ProductCursor cursor = null;
+		if (after != null && !after.isBlank()) {
+			cursor = ProductCursor.decode(after);
+			if (sort != null && sort != cursor.getSort()) {
+				throw new IllegalArgumentException("Page cursor was issued for sort " + cursor.getSort());
+			}
+			sort = cursor.getSort();
+		}
+		if (sort == null) {
+			sort = ProductSort.NAME;
+		}
+		
+		//read one extra row to find out if there is a next page without a COUNT query
+		List<Product> prdts = findPage(category, cursor, sort, PageRequest.of(0, pageSize + 1));
+		boolean hasMore = prdts.size() > pageSize;
+		if (hasMore) {
+			prdts = prdts.subList(0, pageSize);
+		}
+		
+		List<ProductDTO> products = new ArrayList<ProductDTO>();
+		for(Product prod : prdts) {
+			products.add(new ProductDTO(prod));
+		}
+		String next = hasMore ? ProductCursor.after(sort, prdts.get(prdts.size() - 1)).encode() : null;
+		return new ProductPageDTO(products, next);
+	}
+	
+	private List<Product> findPage(ProductCategory category, ProductCursor cursor, ProductSort sort, Pageable page) {
+		if (category == null) {
+			if (sort == ProductSort.PRICE) {
+				return cursor == null ? productRepository.findFirstPageByPrice(page)
+						: productRepository.findPageAfterPrice(cursor.getPrice(), cursor.getId(), page);
+			}
+			return cursor == null ? productRepository.findFirstPageByName(page)
+					: productRepository.findPageAfterName(cursor.getName(), cursor.getId(), page);
+		}
+		if (sort == ProductSort.PRICE) {
+			return cursor == null ? productRepository.findFirstPageInCategoryByPrice(category, page)
+					: productRepository.findPageInCategoryAfterPrice(category, cursor.getPrice(), cursor.getId(), page);
+		}
+		return cursor == null ? productRepository.findFirstPageInCategoryByName(category, page)
+				: productRepository.findPageInCategoryAfterName(category, cursor.getName(), cursor.getId(), page);
+	}
+
+	@Override
+	public List<ProductDTO> getAllProductsWithoutImages() {
+		return productRepository.findAllWithoutImages();
+	}
+
 	@Transactional
 	@Override
 	public ProductDTO getProduct(Long id) throws ResourceNotFoundException {
+		ProductCatalogIndex.Versioned cached = productCatalogIndex.getVersioned(id);
+		if (cached != null) {
+			return cached.getProduct();
+		}
 	    Product prod = productRepository.findById(id)
 	                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id " + id));
 	    return new ProductDTO(prod);
 	}
 
+	@Override
+	public List<ProductDTO> getCompanions(Long id, int limit) throws ResourceNotFoundException {
+		getProduct(id);
+		return getCompanions(Collections.singletonList(id), limit);
+	}
+	
+	//served from memory, deleted Products are skipped
+	@Override
+	public List<ProductDTO> getCompanions(List<Long> ids, int limit) {
+		if (ids.size() > MAX_PAGE_SIZE) {
+			throw new IllegalArgumentException("At most " + MAX_PAGE_SIZE + " Products can be given at once");
+		}
+		List<ProductDTO> products = new ArrayList<ProductDTO>();
+		for (Long companion : productCompanions.companions(ids, limit)) {
+			ProductDTO product = productCatalogIndex.get(companion);
+			if (product != null) {
+				products.add(product);
+			}
+		}
+		return products;
+	}
+
+	@Transactional
+	@Override
+	public ProductBatchDTO getProducts(List<Long> ids) {
+		LinkedHashSet<Long> wanted = new LinkedHashSet<Long>(ids);
+		if (wanted.size() > MAX_PAGE_SIZE) {
+			throw new IllegalArgumentException("At most " + MAX_PAGE_SIZE + " Products can be requested at once");
+		}
+		
+		//one query, with the images, for all of them
+		Map<Long, ProductDTO> found = new HashMap<Long, ProductDTO>();
+		if (!wanted.isEmpty()) {
+			for (Product prod : productRepository.findByIdIn(wanted)) {
+				found.put(prod.getId(), new ProductDTO(prod));
+			}
+		}
+		
+		List<ProductDTO> products = new ArrayList<ProductDTO>();
+		List<Long> missing = new ArrayList<Long>();
+		for (Long id : wanted) {
+			ProductDTO product = found.get(id);
+			if (product != null) {
+				products.add(product);
+			}
+			else {
+				missing.add(id);
+			}
+		}
+		return new ProductBatchDTO(products, missing);
+	}
+
 	@Override
 	public List<String> getProductCategories() {
 		List<String> categoryStrings = Arrays.stream(ProductCategory.values())
@@ -2,6 +2,8 @@ package com.sjsu.storefront.web.services;
 
 import java.util.List;
 
+import com.github.fge.jsonpatch.JsonPatch;
+import com.github.fge.jsonpatch.JsonPatchException;
 import com.sjsu.storefront.common.DuplicateResourceException;
 import com.sjsu.storefront.common.NotAuthenticated;
 import com.sjsu.storefront.common.ResourceNotFoundException;
@@ -31,6 +33,8 @@ public interface UserService {
 
 	public void createUser(UserDTO userDTO) throws DuplicateResourceException;
 	public UserDTO updateUser(Long userId, UserDTO user);
+	//applies a JSON Patch (RFC 6902) to the User, only the changed columns are written
+	public UserDTO patchUser(Long userId, JsonPatch patch) throws JsonPatchException, DuplicateResourceException;
 	public void updateAddress(Long userId, AddressDTO address);
 	public AddressDTO addAddress(Long userId, AddressDTO address) throws WorkflowException, ResourceNotFoundException;
 	public PaymentInfoDTO addPaymentInfo(Long userId, PaymentInfoDTO paymentInfo)
@@ -7,6 +7,12 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.JsonPatch;
+import com.github.fge.jsonpatch.JsonPatchException;
+
 import com.sjsu.storefront.common.DuplicateResourceException;
 import com.sjsu.storefront.common.NotAuthenticated;
 import com.sjsu.storefront.common.OrderStatus;
@@ -30,6 +36,7 @@ import com.sjsu.storefront.data.respository.ShoppingCartRepository;
 import com.sjsu.storefront.data.respository.OrderRepository;
 import com.sjsu.storefront.data.respository.UserRepository;
 import com.sjsu.storefront.web.UserSession;
+import com.sjsu.storefront.web.services.catalog.ProductCompanions;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
@@ -51,6 +58,12 @@ public class UserServiceImpl implements UserService {
 	@Autowired
 	CartService cartService;
 	
+	@Autowired
+	ProductCompanions productCompanions;
+	
+	@Autowired
+	ObjectMapper objectMapper;
+	
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -168,6 +181,43 @@ public class UserServiceImpl implements UserService {
 	      return new UserDTO(savedUser);
 	}
 
+	@Transactional
+	@Override
+	public UserDTO patchUser(Long userId, JsonPatch patch) throws JsonPatchException, DuplicateResourceException {
+		User existingUser = userRepository.findById(userId).orElse(null);
+		if (existingUser == null) {
+			throw new EntityNotFoundException("User Not found");
+		}
+		JsonNode current = objectMapper.valueToTree(new UserDTO(existingUser));
+		JsonNode patched = patch.apply(current);
+		if (!patched.path("id").equals(current.path("id"))) {
+			throw new IllegalArgumentException("The id of a User can't be changed");
+		}
+		if (!patched.path("address").equals(current.path("address"))) {
+			throw new IllegalArgumentException("The address is changed through /users/{userId}/address");
+		}
+		if (!patched.path("userType").equals(current.path("userType"))) {
+			throw new IllegalArgumentException("The type of a User can't be changed");
+		}
+		UserDTO user;
+		try {
+			user = objectMapper.treeToValue(patched, UserDTO.class);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Patched User is not valid: " + e.getOriginalMessage());
+		}
+		if (user.getEmail() != null && !user.getEmail().equals(existingUser.getEmail())
+				&& userRepository.findByEmail(user.getEmail()).isPresent()) {
+			throw new DuplicateResourceException("User with email already Exists");
+		}
+		//a new password comes in clear text, the current one is already encrypted
+		if (user.getPassword() != null && !user.getPassword().equals(existingUser.getPassword())) {
+			user.setPassword(PasswordEncrypt.hashPassword(user.getPassword()));
+		}
+		//dirty checking (with @DynamicUpdate) turns this into an UPDATE of the changed columns only, if any
+		existingUser.set(user);
+		return new UserDTO(existingUser);
+	}
+
 	@Transactional
 	@Override
 	public void updateAddress(Long userId, AddressDTO address) {
@@ -219,6 +269,13 @@ public class UserServiceImpl implements UserService {
 			//create the Order
 			Order savedOrder =  orderRepository.save(order);
 			
+			//"frequently bought together" counts, updated once the order is committed
+			List<Long> productIds = new ArrayList<Long>();
+			for (CartItem item : itemsInCart) {
+				productIds.add(item.getProduct().getId());
+			}
+			productCompanions.recordOrder(productIds);
+			
 //			UserOrder savedOrder;
 //			
 //			if (entityManager.contains(order)) {
@@ -0,0 +1,132 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Burkhard-Keller tree over terms using the Damerau-Levenshtein distance
+ * (Levenshtein plus adjacent transpositions). The triangle inequality lets a query
+ * only visit the children whose edge distance is within maxDistance of its own distance,
+ * so a lookup touches a small part of the tree however many terms it holds.
+ * Terms are never removed, callers keep their own liveness information. Not thread safe.
+ */
+class BKTree {
+
+	static class Match {
+		final String term;
+		final int distance;
+
+		Match(String term, int distance) {
+			this.term = term;
+			this.distance = distance;
+		}
+	}
+
+	private static class Node {
+		final String term;
+		final Map<Integer, Node> children = new HashMap<Integer, Node>();
+
+		Node(String term) {
+			this.term = term;
+		}
+	}
+
+	private Node root;
+	private int size;
+
+	void add(String term) {
+		if (root == null) {
+			root = new Node(term);
+			size++;
+			return;
+		}
+		Node node = root;
+		while (true) {
+			int d = distance(node.term, term, Integer.MAX_VALUE);
+			if (d == 0) {
+				return;
+			}
+			Node child = node.children.get(d);
+			if (child == null) {
+				node.children.put(d, new Node(term));
+				size++;
+				return;
+			}
+			node = child;
+		}
+	}
+
+	List<Match> search(String term, int maxDistance) {
+		List<Match> matches = new ArrayList<Match>();
+		if (root == null) {
+			return matches;
+		}
+		List<Node> pending = new ArrayList<Node>();
+		pending.add(root);
+		while (!pending.isEmpty()) {
+			Node node = pending.remove(pending.size() - 1);
+			int d = distance(node.term, term, Integer.MAX_VALUE);
+			if (d <= maxDistance) {
+				matches.add(new Match(node.term, d));
+			}
+			for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+				if (Math.abs(child.getKey() - d) <= maxDistance) {
+					pending.add(child.getValue());
+				}
+			}
+		}
+		return matches;
+	}
+
+	int size() {
+		return size;
+	}
+
+	void clear() {
+		root = null;
+		size = 0;
+	}
+
+	//Damerau-Levenshtein distance: insertions, deletions, substitutions and transpositions of adjacent
+	//characters, with no restriction on editing a transposed pair again. Unlike the optimal string alignment
+	//distance it is a metric, which the pruning of search() relies on. Returns limit + 1 when the distance exceeds limit
+	static int distance(String a, String b, int limit) {
+		int n = a.length();
+		int m = b.length();
+		if (Math.abs(n - m) > limit) {
+			return limit + 1;
+		}
+		int infinity = n + m;
+		//shifted by one row and column, row and column 0 hold the sentinel
+		int[][] d = new int[n + 2][m + 2];
+		d[0][0] = infinity;
+		for (int i = 0; i <= n; i++) {
+			d[i + 1][0] = infinity;
+			d[i + 1][1] = i;
+		}
+		for (int j = 0; j <= m; j++) {
+			d[0][j + 1] = infinity;
+			d[1][j + 1] = j;
+		}
+		//last row where each character of a was seen
+		Map<Character, Integer> lastRow = new HashMap<Character, Integer>();
+		for (int i = 1; i <= n; i++) {
+			int lastMatchColumn = 0;
+			for (int j = 1; j <= m; j++) {
+				int i1 = lastRow.getOrDefault(b.charAt(j - 1), 0);
+				int j1 = lastMatchColumn;
+				int cost = 1;
+				if (a.charAt(i - 1) == b.charAt(j - 1)) {
+					cost = 0;
+					lastMatchColumn = j;
+				}
+				int v = Math.min(Math.min(d[i][j] + cost, d[i + 1][j] + 1), d[i][j + 1] + 1);
+				d[i + 1][j + 1] = Math.min(v, d[i1][j1] + (i - i1 - 1) + 1 + (j - j1 - 1));
+			}
+			lastRow.put(a.charAt(i - 1), i);
+		}
+		return Math.min(d[n + 1][m + 1], limit == Integer.MAX_VALUE ? Integer.MAX_VALUE : limit + 1);
+	}
+}
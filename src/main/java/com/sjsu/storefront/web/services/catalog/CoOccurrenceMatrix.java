@@ -0,0 +1,71 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sparse symmetric matrix of how many orders had two Products together, one row (a primitive
+ * LongIntHashMap of companion id -> count) per Product. A row holds at most MAX_COMPANIONS pairs:
+ * when it doubles past that, the pairs with the lowest counts are dropped, which bounds the memory
+ * to rows * MAX_COMPANIONS whatever the order history. Not thread safe, callers guard it.
+ */
+class CoOccurrenceMatrix {
+
+	static final int MAX_COMPANIONS = 200;
+
+	//the first ones of a bigger order are counted, an order of n Products is n * (n - 1) pair updates
+	static final int MAX_BASKET = 50;
+
+	private final Map<Long, LongIntHashMap> rows = new HashMap<Long, LongIntHashMap>();
+
+	//counts every pair of distinct Products of the order, once whatever the quantities
+	void addBasket(long[] productIds) {
+		long[] basket = Arrays.stream(productIds).filter(id -> id > 0).distinct().limit(MAX_BASKET).toArray();
+		for (int i = 0; i < basket.length; i++) {
+			for (int j = 0; j < basket.length; j++) {
+				if (i != j) {
+					add(basket[i], basket[j], 1);
+				}
+			}
+		}
+	}
+
+	void merge(CoOccurrenceMatrix other) {
+		for (Map.Entry<Long, LongIntHashMap> row : other.rows.entrySet()) {
+			long id = row.getKey();
+			row.getValue().forEach((companion, count) -> add(id, companion, count));
+		}
+	}
+
+	void remove(long id) {
+		//the pairs in the other rows go when those rows are pruned, callers skip unknown Products meanwhile
+		rows.remove(id);
+	}
+
+	//most frequent companions of the Products taken together (e.g. a cart): the counts are summed
+	//across the rows, the Products themselves are left out
+	long[] top(long[] ids, int limit) {
+		if (ids.length == 1) {
+			LongIntHashMap row = rows.get(ids[0]);
+			return row == null ? new long[0] : row.top(limit);
+		}
+		LongIntHashMap scores = new LongIntHashMap();
+		for (long id : ids) {
+			LongIntHashMap row = rows.get(id);
+			if (row != null) {
+				row.forEach(scores::add);
+			}
+		}
+		long[] best = scores.top(limit + ids.length);
+		return Arrays.stream(best).filter(id -> Arrays.stream(ids).noneMatch(own -> own == id)).limit(limit).toArray();
+	}
+
+	private void add(long id, long companion, int count) {
+		LongIntHashMap row = rows.computeIfAbsent(id, k -> new LongIntHashMap());
+		row.add(companion, count);
+		if (row.size() > 2 * MAX_COMPANIONS) {
+			row.prune(MAX_COMPANIONS);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bitset based faceted filtering. Every product gets a dense ordinal and every facet value a
+ * BitSet of the ordinals having it. A filter is an AND across facets of the OR of the values
+ * selected within a facet, and a facet count is the cardinality of a value's bitset ANDed with
+ * the filter of the other facets, so counting costs a few word operations per value.
+ * Not thread safe, callers guard it.
+ */
+class FacetIndex {
+
+	static final String CATEGORY = "category";
+	static final String PRICE = "price";
+	static final String WEIGHT = "weight";
+	static final String STOCK = "stock";
+
+	static final String IN_STOCK = "IN_STOCK";
+	static final String OUT_OF_STOCK = "OUT_OF_STOCK";
+
+	//lower bounds of the bands, a band runs up to the next bound
+	private static final double[] PRICE_BOUNDS = { 0, 5, 10, 25, 50 };
+	private static final double[] WEIGHT_BOUNDS = { 0, 1, 5, 20 }; // 20 is where shipping starts being charged
+
+	static final List<String> PRICE_BANDS = bandLabels(PRICE_BOUNDS);
+	static final List<String> WEIGHT_BANDS = bandLabels(WEIGHT_BOUNDS);
+
+	//facet -> value -> ordinals, insertion ordered so the facet counts come out in a stable order
+	private final Map<String, Map<String, BitSet>> facets = new LinkedHashMap<String, Map<String, BitSet>>();
+	
+	private final BitSet live = new BitSet();
+	private final Map<Long, Integer> ordinals = new HashMap<Long, Integer>();
+	private final Map<Long, String[]> valuesById = new HashMap<Long, String[]>();
+	private long[] ids = new long[1024];
+	private final List<Integer> freeOrdinals = new ArrayList<Integer>();
+	private int nextOrdinal;
+
+	FacetIndex(Collection<String> categories) {
+		facets.put(CATEGORY, emptyValues(categories));
+		facets.put(PRICE, emptyValues(PRICE_BANDS));
+		facets.put(WEIGHT, emptyValues(WEIGHT_BANDS));
+		facets.put(STOCK, emptyValues(Arrays.asList(IN_STOCK, OUT_OF_STOCK)));
+	}
+
+	static String priceBand(double price) {
+		return PRICE_BANDS.get(band(PRICE_BOUNDS, price));
+	}
+
+	static String weightBand(double weight) {
+		return WEIGHT_BANDS.get(band(WEIGHT_BOUNDS, weight));
+	}
+
+	boolean isValue(String facet, String value) {
+		return facets.containsKey(facet) && facets.get(facet).containsKey(value);
+	}
+
+	//values in the same order as the facets were registered: category, price, weight, stock
+	void put(long id, String... values) {
+		remove(id);
+		int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.remove(freeOrdinals.size() - 1);
+		if (ordinal >= ids.length) {
+			ids = Arrays.copyOf(ids, ids.length * 2);
+		}
+		ids[ordinal] = id;
+		ordinals.put(id, ordinal);
+		valuesById.put(id, values);
+		live.set(ordinal);
+		int i = 0;
+		for (Map<String, BitSet> facet : facets.values()) {
+			BitSet bits = facet.get(values[i++]);
+			if (bits != null) {
+				bits.set(ordinal);
+			}
+		}
+	}
+
+	void remove(long id) {
+		Integer ordinal = ordinals.remove(id);
+		if (ordinal == null) {
+			return;
+		}
+		String[] values = valuesById.remove(id);
+		int i = 0;
+		for (Map<String, BitSet> facet : facets.values()) {
+			BitSet bits = facet.get(values[i++]);
+			if (bits != null) {
+				bits.clear(ordinal);
+			}
+		}
+		live.clear(ordinal);
+		freeOrdinals.add(ordinal);
+	}
+
+	void clear() {
+		for (Map<String, BitSet> facet : facets.values()) {
+			for (BitSet bits : facet.values()) {
+				bits.clear();
+			}
+		}
+		live.clear();
+		ordinals.clear();
+		valuesById.clear();
+		freeOrdinals.clear();
+		nextOrdinal = 0;
+	}
+
+	//the mask a facet contributes to the filter, null when nothing is selected in it
+	private BitSet mask(String facet, Collection<String> selected) {
+		if (selected == null || selected.isEmpty()) {
+			return null;
+		}
+		BitSet mask = new BitSet();
+		for (String value : selected) {
+			BitSet bits = facets.get(facet).get(value);
+			if (bits != null) {
+				mask.or(bits);
+			}
+		}
+		return mask;
+	}
+
+	private BitSet filter(Map<String, BitSet> masks, String excluded) {
+		BitSet result = (BitSet) live.clone();
+		for (Map.Entry<String, BitSet> mask : masks.entrySet()) {
+			if (!mask.getKey().equals(excluded)) {
+				result.and(mask.getValue());
+			}
+		}
+		return result;
+	}
+
+	BitSet match(Map<String, ? extends Collection<String>> selection, Map<String, Map<String, Integer>> countsOut) {
+		Map<String, BitSet> masks = new HashMap<String, BitSet>();
+		for (String facet : facets.keySet()) {
+			BitSet mask = mask(facet, selection.get(facet));
+			if (mask != null) {
+				masks.put(facet, mask);
+			}
+		}
+		//a facet's own selection does not narrow its counts, so the other values stay selectable
+		for (Map.Entry<String, Map<String, BitSet>> facet : facets.entrySet()) {
+			BitSet base = filter(masks, facet.getKey());
+			Map<String, Integer> counts = new LinkedHashMap<String, Integer>();
+			for (Map.Entry<String, BitSet> value : facet.getValue().entrySet()) {
+				BitSet bits = (BitSet) value.getValue().clone();
+				bits.and(base);
+				counts.put(value.getKey(), bits.cardinality());
+			}
+			countsOut.put(facet.getKey(), counts);
+		}
+		return filter(masks, null);
+	}
+
+	long idAt(int ordinal) {
+		return ids[ordinal];
+	}
+
+	private static Map<String, BitSet> emptyValues(Collection<String> values) {
+		Map<String, BitSet> result = new LinkedHashMap<String, BitSet>();
+		for (String value : values) {
+			result.put(value, new BitSet());
+		}
+		return result;
+	}
+
+	private static int band(double[] bounds, double value) {
+		int band = 0;
+		while (band + 1 < bounds.length && value >= bounds[band + 1]) {
+			band++;
+		}
+		return band;
+	}
+
+	private static List<String> bandLabels(double[] bounds) {
+		List<String> labels = new ArrayList<String>();
+		for (int i = 0; i < bounds.length; i++) {
+			String from = format(bounds[i]);
+			labels.add(i + 1 < bounds.length ? from + "-" + format(bounds[i + 1]) : from + "+");
+		}
+		return labels;
+	}
+
+	private static String format(double bound) {
+		return bound == Math.rint(bound) ? Long.toString((long) bound) : Double.toString(bound);
+	}
+}
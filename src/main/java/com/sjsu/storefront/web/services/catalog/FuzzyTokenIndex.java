@@ -0,0 +1,104 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typo tolerant token index. Names are split into lower case tokens, each distinct token goes
+ * into a BK-tree and has a postings set of the ids using it. A query token is matched against
+ * all tokens within a small edit distance that depends on its length.
+ * Not thread safe, callers guard it.
+ */
+class FuzzyTokenIndex {
+
+	//how a single id matched a query
+	static class Hit {
+		final long id;
+		int matchedTerms;
+		int totalDistance;
+
+		Hit(long id) {
+			this.id = id;
+		}
+	}
+
+	private final BKTree tree = new BKTree();
+	private final Map<String, Set<Long>> postings = new HashMap<String, Set<Long>>();
+	private final Map<Long, Set<String>> tokensById = new HashMap<Long, Set<String>>();
+
+	static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<String>();
+		for (String token : TrigramIndex.normalize(text).split("[^\\p{L}\\p{N}]+")) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	//short tokens only tolerate small mistakes, otherwise everything matches everything
+	static int maxDistance(String token) {
+		if (token.length() < 3) {
+			return 0;
+		}
+		return token.length() <= 5 ? 1 : 2;
+	}
+
+	void put(long id, String text) {
+		remove(id);
+		Set<String> tokens = new HashSet<String>(tokenize(text));
+		tokensById.put(id, tokens);
+		for (String token : tokens) {
+			Set<Long> ids = postings.get(token);
+			if (ids == null) {
+				ids = new HashSet<Long>();
+				postings.put(token, ids);
+				tree.add(token);
+			}
+			ids.add(id);
+		}
+	}
+
+	void remove(long id) {
+		Set<String> tokens = tokensById.remove(id);
+		if (tokens == null) {
+			return;
+		}
+		//the token stays in the tree, an empty postings set marks it as unused
+		for (String token : tokens) {
+			Set<Long> ids = postings.get(token);
+			if (ids != null) {
+				ids.remove(id);
+			}
+		}
+	}
+
+	void clear() {
+		tree.clear();
+		postings.clear();
+		tokensById.clear();
+	}
+
+	List<Hit> search(String query) {
+		Map<Long, Hit> hits = new HashMap<Long, Hit>();
+		for (String queryToken : new HashSet<String>(tokenize(query))) {
+			//best distance per id for this query token
+			Map<Long, Integer> best = new HashMap<Long, Integer>();
+			for (BKTree.Match match : tree.search(queryToken, maxDistance(queryToken))) {
+				for (Long id : postings.get(match.term)) {
+					best.merge(id, match.distance, Math::min);
+				}
+			}
+			for (Map.Entry<Long, Integer> entry : best.entrySet()) {
+				Hit hit = hits.computeIfAbsent(entry.getKey(), Hit::new);
+				hit.matchedTerms++;
+				hit.totalDistance += entry.getValue();
+			}
+		}
+		return new ArrayList<Hit>(hits.values());
+	}
+}
@@ -0,0 +1,202 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Counts keyed by positive longs (Product ids) in two plain arrays, open addressing with linear probing:
+ * no boxed keys nor values and no entry objects, a lookup is a couple of array reads.
+ * 0 marks a free slot. There is no single key removal, prune() rebuilds the table instead.
+ * Not thread safe, callers guard it.
+ */
+class LongIntHashMap {
+
+	private static final int MIN_CAPACITY = 8;
+
+	private long[] keys;
+	private int[] values;
+	private int size;
+
+	LongIntHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	LongIntHashMap(int expected) {
+		allocate(tableSize(expected));
+	}
+
+	int size() {
+		return size;
+	}
+
+	int get(long key) {
+		int slot = find(key);
+		return keys[slot] == key ? values[slot] : 0;
+	}
+
+	//adds delta to the count of the key (0 when absent), returns the new count
+	int add(long key, int delta) {
+		if (key <= 0) {
+			throw new IllegalArgumentException("Keys must be positive: " + key);
+		}
+		int slot = find(key);
+		if (keys[slot] == key) {
+			values[slot] += delta;
+			return values[slot];
+		}
+		keys[slot] = key;
+		values[slot] = delta;
+		if (++size > keys.length / 2) {
+			resize(keys.length * 2);
+		}
+		return delta;
+	}
+
+	//keeps the limit keys with the highest counts, ties broken by the smallest key so it is deterministic
+	void prune(int limit) {
+		if (size <= limit) {
+			return;
+		}
+		long[] kept = top(limit);
+		Arrays.sort(kept);
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(tableSize(limit));
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0 && Arrays.binarySearch(kept, oldKeys[i]) >= 0) {
+				insert(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	//keys with the highest counts, highest first
+	long[] top(int limit) {
+		//min-heap of slots on the count, the smallest of the best so far is at the root
+		int[] heap = new int[Math.min(limit, size)];
+		int heapSize = 0;
+		if (heap.length == 0) {
+			return new long[0];
+		}
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] == 0) {
+				continue;
+			}
+			if (heapSize < heap.length) {
+				heap[heapSize] = slot;
+				siftUp(heap, heapSize++);
+			} else if (better(slot, heap[0])) {
+				heap[0] = slot;
+				siftDown(heap, heapSize);
+			}
+		}
+		long[] result = new long[heapSize];
+		for (int i = heapSize - 1; i >= 0; i--) {
+			result[i] = keys[heap[0]];
+			heap[0] = heap[i];
+			siftDown(heap, i);
+		}
+		return result;
+	}
+
+	//calls the visitor with every key and its count
+	void forEach(EntryVisitor visitor) {
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != 0) {
+				visitor.visit(keys[slot], values[slot]);
+			}
+		}
+	}
+
+	interface EntryVisitor {
+		void visit(long key, int value);
+	}
+
+	private boolean better(int slot, int other) {
+		return values[slot] != values[other] ? values[slot] > values[other] : keys[slot] < keys[other];
+	}
+
+	private void siftUp(int[] heap, int i) {
+		while (i > 0) {
+			int parent = (i - 1) / 2;
+			if (!better(heap[parent], heap[i])) {
+				break;
+			}
+			swap(heap, i, parent);
+			i = parent;
+		}
+	}
+
+	private void siftDown(int[] heap, int heapSize) {
+		int i = 0;
+		while (true) {
+			int worst = i;
+			int left = 2 * i + 1;
+			int right = left + 1;
+			if (left < heapSize && better(heap[worst], heap[left])) {
+				worst = left;
+			}
+			if (right < heapSize && better(heap[worst], heap[right])) {
+				worst = right;
+			}
+			if (worst == i) {
+				return;
+			}
+			swap(heap, i, worst);
+			i = worst;
+		}
+	}
+
+	private static void swap(int[] heap, int i, int j) {
+		int tmp = heap[i];
+		heap[i] = heap[j];
+		heap[j] = tmp;
+	}
+
+	//slot of the key, or the free slot where it would go
+	private int find(long key) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (keys[slot] != 0 && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void insert(long key, int value) {
+		int slot = find(key);
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+	}
+
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(capacity);
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				insert(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+	}
+
+	//power of two with the entries filling at most half of it
+	private static int tableSize(int expected) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < 2 * expected) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
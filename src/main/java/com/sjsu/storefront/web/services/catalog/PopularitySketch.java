@@ -0,0 +1,148 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Approximate hit counts per id in fixed memory: a Count-Min Sketch (the estimate of an id is the smallest of
+ * its DEPTH counters, never less than the real count) plus the candidate heavy hitters, the ids whose estimate
+ * was above the smallest of the current top ones when they were hit.
+ * Recording is a few atomic adds, no locks. decay() halves everything so old hits weigh less and less.
+ */
+class PopularitySketch {
+
+	private static final int DEPTH = 4;
+	private static final int WIDTH = 1 << 14;
+	private static final long[] SEEDS = { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L };
+
+	//counter j of row i is at i * WIDTH + j
+	private final AtomicLongArray counters = new AtomicLongArray(DEPTH * WIDTH);
+
+	//more candidates than asked for are kept, the estimates of the ones at the bottom are the least accurate
+	private final int capacity;
+	private final Map<Long, Boolean> candidates = new ConcurrentHashMap<Long, Boolean>();
+	//estimate an id needs to become a candidate once the candidates are full
+	private volatile long threshold;
+	private final ReentrantLock pruning = new ReentrantLock();
+
+	PopularitySketch(int capacity) {
+		this.capacity = capacity;
+	}
+
+	void record(long id, long weight) {
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < DEPTH; row++) {
+			estimate = Math.min(estimate, counters.addAndGet(index(row, id), weight));
+		}
+		if (estimate > threshold && !candidates.containsKey(id)) {
+			candidates.put(id, Boolean.TRUE);
+			if (candidates.size() > 2 * capacity) {
+				prune();
+			}
+		}
+	}
+
+	long estimate(long id) {
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < DEPTH; row++) {
+			estimate = Math.min(estimate, counters.get(index(row, id)));
+		}
+		return estimate;
+	}
+
+	//ids with the highest estimates, highest first
+	List<Long> top(int limit) {
+		List<long[]> ranked = new ArrayList<long[]>();
+		for (Long id : candidates.keySet()) {
+			long estimate = estimate(id);
+			if (estimate > 0) {
+				ranked.add(new long[] { id, estimate });
+			}
+		}
+		ranked.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+		List<Long> ids = new ArrayList<Long>();
+		for (int i = 0; i < Math.min(limit, ranked.size()); i++) {
+			ids.add(ranked.get(i)[0]);
+		}
+		return ids;
+	}
+
+	//Keeps the capacity best candidates (a min-heap of them), the smallest kept estimate becomes the threshold.
+	//Skipped when another thread is already at it, the record path never waits
+	void prune() {
+		if (!pruning.tryLock()) {
+			return;
+		}
+		try {
+			PriorityQueue<long[]> best = new PriorityQueue<long[]>((a, b) -> Long.compare(a[1], b[1]));
+			for (Long id : candidates.keySet()) {
+				long estimate = estimate(id);
+				if (best.size() < capacity) {
+					best.add(new long[] { id, estimate });
+				} else if (estimate > best.peek()[1]) {
+					candidates.remove(best.poll()[0]);
+					best.add(new long[] { id, estimate });
+				} else {
+					candidates.remove(id);
+				}
+			}
+			threshold = best.size() < capacity || best.isEmpty() ? 0 : best.peek()[1];
+		} finally {
+			pruning.unlock();
+		}
+	}
+
+	//halves every counter, a hit recorded during the decay may be halved or not
+	void decay() {
+		for (int i = 0; i < counters.length(); i++) {
+			if (counters.get(i) != 0) {
+				counters.getAndUpdate(i, count -> count >> 1);
+			}
+		}
+		threshold = threshold >> 1;
+		prune();
+	}
+
+	void write(DataOutputStream out) throws IOException {
+		out.writeInt(DEPTH);
+		out.writeInt(WIDTH);
+		for (int i = 0; i < counters.length(); i++) {
+			out.writeLong(counters.get(i));
+		}
+		List<Long> ids = new ArrayList<Long>(candidates.keySet());
+		out.writeInt(ids.size());
+		for (Long id : ids) {
+			out.writeLong(id);
+		}
+	}
+
+	void read(DataInputStream in) throws IOException {
+		if (in.readInt() != DEPTH || in.readInt() != WIDTH) {
+			throw new IOException("Snapshot of a sketch with other dimensions");
+		}
+		for (int i = 0; i < counters.length(); i++) {
+			counters.set(i, in.readLong());
+		}
+		candidates.clear();
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			candidates.put(in.readLong(), Boolean.TRUE);
+		}
+		prune();
+	}
+
+	private static int index(int row, long id) {
+		long hash = (id + SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+		hash = (hash ^ (hash >>> 31)) * 0x94D049BB133111EBL;
+		hash ^= hash >>> 29;
+		return row * WIDTH + (int) (hash & (WIDTH - 1));
+	}
+}
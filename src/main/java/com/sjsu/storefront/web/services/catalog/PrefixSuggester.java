@@ -0,0 +1,233 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prefix trie for type-ahead. A product is reachable from the start of its name and from the
+ * start of every later word in it ("Green Apple" answers both "gr" and "ap"). Every node caches
+ * the best TOP_K suggestions of its subtree, so a lookup is a walk down the prefix followed by a
+ * copy of that cached list. Children are kept in sorted char arrays to keep the nodes small.
+ * Suggestions are names, so a cached list holds one product per name (case aside), the best ranked one.
+ * Not thread safe, callers guard it.
+ */
+class PrefixSuggester {
+
+	static final int TOP_K = 10;
+
+	static class Suggestion {
+		final long id;
+		final String name;
+		final String normalizedName;
+		final boolean inStock;
+
+		Suggestion(long id, String name, boolean inStock) {
+			this.id = id;
+			this.name = name;
+			this.normalizedName = TrigramIndex.normalize(name).trim();
+			this.inStock = inStock;
+		}
+	}
+
+	//products in stock first, then shorter (closer to the prefix) names, then alphabetical
+	private static final Comparator<Suggestion> RANKING = Comparator
+			.comparing((Suggestion s) -> !s.inStock)
+			.thenComparingInt(s -> s.name.length())
+			.thenComparing(s -> s.name, String.CASE_INSENSITIVE_ORDER)
+			.thenComparingLong(s -> s.id);
+
+	private static final char[] NO_KEYS = new char[0];
+	private static final Node[] NO_CHILDREN = new Node[0];
+	private static final Suggestion[] NONE = new Suggestion[0];
+
+	private static class Node {
+		char[] keys = NO_KEYS;
+		Node[] children = NO_CHILDREN;
+		Suggestion[] terminals = NONE; //products having a key that ends at this node
+		Suggestion[] top = NONE;       //best TOP_K of the subtree, in RANKING order
+
+		Node child(char c) {
+			int i = Arrays.binarySearch(keys, c);
+			return i >= 0 ? children[i] : null;
+		}
+
+		Node childOrCreate(char c) {
+			int i = Arrays.binarySearch(keys, c);
+			if (i >= 0) {
+				return children[i];
+			}
+			int at = -i - 1;
+			Node node = new Node();
+			char[] newKeys = new char[keys.length + 1];
+			Node[] newChildren = new Node[children.length + 1];
+			System.arraycopy(keys, 0, newKeys, 0, at);
+			System.arraycopy(children, 0, newChildren, 0, at);
+			newKeys[at] = c;
+			newChildren[at] = node;
+			System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+			System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+			keys = newKeys;
+			children = newChildren;
+			return node;
+		}
+
+		boolean topContains(long id) {
+			for (Suggestion s : top) {
+				if (s.id == id) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void offer(Suggestion suggestion) {
+			//Products sharing a name have the same keys, so the same paths: the better ranked one stands for them all
+			for (int i = 0; i < top.length; i++) {
+				if (top[i].normalizedName.equals(suggestion.normalizedName)) {
+					if (RANKING.compare(suggestion, top[i]) >= 0) {
+						return;
+					}
+					Suggestion[] newTop = new Suggestion[top.length - 1];
+					System.arraycopy(top, 0, newTop, 0, i);
+					System.arraycopy(top, i + 1, newTop, i, top.length - i - 1);
+					top = newTop;
+					break;
+				}
+			}
+			if (top.length == TOP_K && RANKING.compare(suggestion, top[TOP_K - 1]) >= 0) {
+				return;
+			}
+			int at = 0;
+			while (at < top.length && RANKING.compare(top[at], suggestion) < 0) {
+				at++;
+			}
+			int newLength = Math.min(top.length + 1, TOP_K);
+			Suggestion[] newTop = new Suggestion[newLength];
+			System.arraycopy(top, 0, newTop, 0, at);
+			newTop[at] = suggestion;
+			System.arraycopy(top, at, newTop, at + 1, newLength - at - 1);
+			top = newTop;
+		}
+
+		//any member of the subtree top K is in the top K of a child or is a terminal here
+		void recomputeTop() {
+			top = NONE;
+			for (Suggestion s : terminals) {
+				offer(s);
+			}
+			for (Node child : children) {
+				for (Suggestion s : child.top) {
+					offer(s);
+				}
+			}
+		}
+	}
+
+	private Node root = new Node();
+	
+	private final Map<Long, List<String>> keysById = new HashMap<Long, List<String>>();
+
+	static List<String> keys(String name) {
+		String normalized = TrigramIndex.normalize(name).trim();
+		List<String> keys = new ArrayList<String>();
+		if (normalized.isEmpty()) {
+			return keys;
+		}
+		keys.add(normalized);
+		for (int i = 1; i < normalized.length(); i++) {
+			if (!Character.isLetterOrDigit(normalized.charAt(i - 1)) && Character.isLetterOrDigit(normalized.charAt(i))) {
+				keys.add(normalized.substring(i));
+			}
+		}
+		return keys;
+	}
+
+	void put(long id, String name, boolean inStock) {
+		remove(id);
+		List<String> keys = keys(name);
+		keysById.put(id, keys);
+		Suggestion suggestion = new Suggestion(id, name, inStock);
+		for (String key : keys) {
+			Node node = root;
+			node.offer(suggestion);
+			for (int i = 0; i < key.length(); i++) {
+				node = node.childOrCreate(key.charAt(i));
+				node.offer(suggestion);
+			}
+			node.terminals = append(node.terminals, suggestion);
+		}
+	}
+
+	void remove(long id) {
+		List<String> keys = keysById.remove(id);
+		if (keys == null) {
+			return;
+		}
+		List<Node[]> paths = new ArrayList<Node[]>();
+		for (String key : keys) {
+			Node[] path = path(key);
+			Node end = path[path.length - 1];
+			end.terminals = without(end.terminals, id);
+			paths.add(path);
+		}
+		//fix the cached lists bottom up, a shared ancestor may need a second pass once its other child is fixed
+		for (Node[] path : paths) {
+			for (int i = path.length - 1; i >= 0; i--) {
+				if (path[i].topContains(id)) {
+					path[i].recomputeTop();
+				}
+			}
+		}
+	}
+
+	List<String> suggest(String prefix, int limit) {
+		List<String> names = new ArrayList<String>();
+		Node node = root;
+		String normalized = TrigramIndex.normalize(prefix);
+		for (int i = 0; i < normalized.length() && node != null; i++) {
+			node = node.child(normalized.charAt(i));
+		}
+		if (node == null) {
+			return names;
+		}
+		for (int i = 0; i < node.top.length && i < limit; i++) {
+			names.add(node.top[i].name);
+		}
+		return names;
+	}
+
+	void clear() {
+		root = new Node();
+		keysById.clear();
+	}
+
+	private Node[] path(String key) {
+		Node[] path = new Node[key.length() + 1];
+		path[0] = root;
+		for (int i = 0; i < key.length(); i++) {
+			path[i + 1] = path[i].child(key.charAt(i));
+		}
+		return path;
+	}
+
+	private static Suggestion[] append(Suggestion[] all, Suggestion suggestion) {
+		Suggestion[] result = Arrays.copyOf(all, all.length + 1);
+		result[all.length] = suggestion;
+		return result;
+	}
+
+	private static Suggestion[] without(Suggestion[] all, long id) {
+		int n = 0;
+		Suggestion[] result = new Suggestion[all.length];
+		for (Suggestion s : all) {
+			if (s.id != id) {
+				result[n++] = s;
+			}
+		}
+		return n == 0 ? NONE : Arrays.copyOf(result, n);
+	}
+}
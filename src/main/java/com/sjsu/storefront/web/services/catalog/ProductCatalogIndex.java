@@ -0,0 +1,358 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.sjsu.storefront.common.ProductCategory;
+import com.sjsu.storefront.data.model.DTO.ProductDTO;
+import com.sjsu.storefront.data.model.DTO.ProductFacetsDTO;
+
+/**
+ * In memory view of the product catalog used to answer the read heavy endpoints (search etc.)
+ * without going to the database. ProductServiceImpl keeps it in step with every product mutation
+ * and loads it from the database once the application is up.
+ */
+@Component
+public class ProductCatalogIndex {
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	private final Map<Long, ProductDTO> products = new HashMap<Long, ProductDTO>();
+	
+	//every change of a product gets the next number of this sequence as the product's version
+	private final Map<Long, Long> versions = new HashMap<Long, Long>();
+	private final Map<Long, Long> modifiedAt = new HashMap<Long, Long>();
+	
+	//the catalog version is the version of the latest change, removals included
+	private volatile long lastVersion;
+	private volatile long lastModified = System.currentTimeMillis();
+	
+	//false until the first rebuild, callers go to the database meanwhile
+	private volatile boolean loaded;
+	
+	//latest state of the products changed while a rebuild reads the database (null when removed),
+	//replayed on the rebuilt index so a change committed during the load is never lost
+	private Map<Long, ProductDTO> changedDuringRebuild;
+	
+	private final TrigramIndex nameIndex = new TrigramIndex();
+	
+	private final FuzzyTokenIndex fuzzyIndex = new FuzzyTokenIndex();
+	
+	private final PrefixSuggester suggester = new PrefixSuggester();
+	
+	private final FacetIndex facetIndex = new FacetIndex(Arrays.stream(ProductCategory.values())
+			.map(Enum::name)
+			.collect(Collectors.toList()));
+
+	//all gives every product, read from the database once the changes made meanwhile are being recorded
+	public void rebuild(Supplier<Collection<ProductDTO>> all) {
+		lock.writeLock().lock();
+		try {
+			changedDuringRebuild = new LinkedHashMap<Long, ProductDTO>();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+		Collection<ProductDTO> snapshot;
+		try {
+			snapshot = all.get();
+		} catch (RuntimeException e) {
+			lock.writeLock().lock();
+			try {
+				changedDuringRebuild = null;
+			}
+			finally {
+				lock.writeLock().unlock();
+			}
+			throw e;
+		}
+		lock.writeLock().lock();
+		try {
+			Map<Long, ProductDTO> changedMeanwhile = changedDuringRebuild;
+			changedDuringRebuild = null;
+			products.clear();
+			versions.clear();
+			modifiedAt.clear();
+			changed();
+			nameIndex.clear();
+			fuzzyIndex.clear();
+			suggester.clear();
+			facetIndex.clear();
+			for (ProductDTO product : snapshot) {
+				add(product);
+			}
+			for (Map.Entry<Long, ProductDTO> change : changedMeanwhile.entrySet()) {
+				if (change.getValue() != null) {
+					add(change.getValue());
+				} else {
+					removeIndexed(change.getKey());
+				}
+			}
+			loaded = true;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void upsert(ProductDTO product) {
+		lock.writeLock().lock();
+		try {
+			add(product);
+			if (changedDuringRebuild != null) {
+				changedDuringRebuild.put(product.getId(), product);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(long id) {
+		lock.writeLock().lock();
+		try {
+			removeIndexed(id);
+			if (changedDuringRebuild != null) {
+				changedDuringRebuild.put(id, null);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public ProductDTO get(long id) {
+		lock.readLock().lock();
+		try {
+			return products.get(id);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	//ids of every product, or of the products of a category when one is given, in id order
+	public List<Long> ids(ProductCategory category) {
+		lock.readLock().lock();
+		try {
+			List<Long> ids = new ArrayList<Long>();
+			for (ProductDTO product : products.values()) {
+				if (category == null || category == product.getProductCategory()) {
+					ids.add(product.getId());
+				}
+			}
+			Collections.sort(ids);
+			return ids;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//changes on every product change, lets clients revalidate catalog wide responses cheaply
+	public long getCatalogVersion() {
+		return lastVersion;
+	}
+
+	public long getCatalogLastModified() {
+		return lastModified;
+	}
+
+	//a product snapshot together with its version, null if the product is not in the catalog
+	public Versioned getVersioned(long id) {
+		lock.readLock().lock();
+		try {
+			ProductDTO product = products.get(id);
+			return product == null ? null : new Versioned(product, versions.get(id), modifiedAt.get(id));
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//same matches as ProductRepository.findByProductNameContaining, ordered by id
+	public List<ProductDTO> findByName(String searchTerm) {
+		lock.readLock().lock();
+		try {
+			List<Long> ids = nameIndex.search(searchTerm);
+			Collections.sort(ids);
+			return resolve(ids);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//typo tolerant search, best matches first: most query terms matched, then smallest total edit distance
+	public List<ProductDTO> findByNameFuzzy(String searchTerm, int page, int size) {
+		lock.readLock().lock();
+		try {
+			List<FuzzyTokenIndex.Hit> hits = fuzzyIndex.search(searchTerm);
+			hits.sort(Comparator.comparingInt((FuzzyTokenIndex.Hit h) -> -h.matchedTerms)
+					.thenComparingInt(h -> h.totalDistance)
+					.thenComparing(h -> products.get(h.id).getName())
+					.thenComparingLong(h -> h.id));
+			List<Long> ids = new ArrayList<Long>();
+			//long: a large page number can't wrap around, past the end is an empty page
+			long from = (long) page * size;
+			for (long i = from; i < hits.size() && i < from + size; i++) {
+				ids.add(hits.get((int) i).id);
+			}
+			return resolve(ids);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//type-ahead names for a prefix of the name or of any word in it, at most PrefixSuggester.TOP_K of them
+	public List<String> suggest(String prefix, int limit) {
+		lock.readLock().lock();
+		try {
+			return suggester.suggest(prefix, limit);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Filters on any combination of categories, price bands, weight bands and stock. Values within a
+	 * facet are ORed, facets are ANDed; a null or empty selection does not filter on that facet.
+	 */
+	public ProductFacetsDTO facetSearch(Collection<ProductCategory> categories, Collection<String> priceBands,
+			Collection<String> weightBands, Boolean inStock, int page, int size) {
+		Map<String, List<String>> selection = new HashMap<String, List<String>>();
+		if (categories != null) {
+			selection.put(FacetIndex.CATEGORY, categories.stream().map(Enum::name).collect(Collectors.toList()));
+		}
+		selection.put(FacetIndex.PRICE, validated(FacetIndex.PRICE, priceBands));
+		selection.put(FacetIndex.WEIGHT, validated(FacetIndex.WEIGHT, weightBands));
+		if (inStock != null) {
+			selection.put(FacetIndex.STOCK, Arrays.asList(inStock ? FacetIndex.IN_STOCK : FacetIndex.OUT_OF_STOCK));
+		}
+
+		lock.readLock().lock();
+		try {
+			Map<String, Map<String, Integer>> counts = new LinkedHashMap<String, Map<String, Integer>>();
+			BitSet matches = facetIndex.match(selection, counts);
+			List<Long> ids = new ArrayList<Long>();
+			//long: a large page number can't wrap around, past the end is an empty page
+			long skip = (long) page * size;
+			for (int ord = matches.nextSetBit(0); ord >= 0 && ids.size() < size; ord = matches.nextSetBit(ord + 1)) {
+				if (skip > 0) {
+					skip--;
+				}
+				else {
+					ids.add(facetIndex.idAt(ord));
+				}
+			}
+			return new ProductFacetsDTO(matches.cardinality(), resolve(ids), counts);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private List<String> validated(String facet, Collection<String> values) {
+		List<String> result = new ArrayList<String>();
+		if (values != null) {
+			for (String value : values) {
+				if (!facetIndex.isValue(facet, value)) {
+					throw new IllegalArgumentException("Unknown " + facet + " band " + value);
+				}
+				result.add(value);
+			}
+		}
+		return result;
+	}
+
+	//must be called holding the write lock
+	private void changed() {
+		lastVersion++;
+		lastModified = System.currentTimeMillis();
+	}
+
+	//must be called holding the write lock
+	private void removeIndexed(long id) {
+		if (products.remove(id) != null) {
+			versions.remove(id);
+			modifiedAt.remove(id);
+			changed();
+			nameIndex.remove(id);
+			fuzzyIndex.remove(id);
+			suggester.remove(id);
+			facetIndex.remove(id);
+		}
+	}
+
+	//must be called holding the write lock
+	private void add(ProductDTO product) {
+		products.put(product.getId(), product);
+		changed();
+		versions.put(product.getId(), lastVersion);
+		modifiedAt.put(product.getId(), lastModified);
+		nameIndex.put(product.getId(), product.getName());
+		fuzzyIndex.put(product.getId(), product.getName());
+		suggester.put(product.getId(), product.getName(), product.getQuantityInStock() > 0);
+		facetIndex.put(product.getId(),
+				product.getProductCategory() == null ? null : product.getProductCategory().name(),
+				FacetIndex.priceBand(product.getPrice()),
+				FacetIndex.weightBand(product.getWeight()),
+				product.getQuantityInStock() > 0 ? FacetIndex.IN_STOCK : FacetIndex.OUT_OF_STOCK);
+	}
+
+	//must be called holding the read lock
+	private List<ProductDTO> resolve(List<Long> ids) {
+		List<ProductDTO> result = new ArrayList<ProductDTO>(ids.size());
+		for (Long id : ids) {
+			ProductDTO product = products.get(id);
+			if (product != null) {
+				result.add(product);
+			}
+		}
+		return result;
+	}
+
+	public static class Versioned {
+		private final ProductDTO product;
+		private final long version;
+		private final long lastModified;
+
+		Versioned(ProductDTO product, long version, long lastModified) {
+			this.product = product;
+			this.version = version;
+			this.lastModified = lastModified;
+		}
+
+		public ProductDTO getProduct() {
+			return product;
+		}
+
+		public long getVersion() {
+			return version;
+		}
+
+		public long getLastModified() {
+			return lastModified;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * "Frequently bought together": for each Product, the Products most often in the same orders.
+ * Kept in memory (CoOccurrenceMatrix), updated with every order placed and rebuilt from the order
+ * history at startup. Answering is a scan of one (bounded) row, no database access.
+ */
+@Component
+public class ProductCompanions {
+
+	public static final int MAX_LIMIT = 50;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+
+	//orders placed while a rebuild runs, replayed on the rebuilt matrix. One placed just as the history
+	//is read may be counted twice, never missed
+	private List<long[]> recordedDuringRebuild;
+
+	//history gives the Product ids of every past order. The baskets are split over the common pool,
+	//each part counted in its own matrix, the parts then merged
+	public void rebuild(Supplier<Collection<long[]>> history) {
+		lock.writeLock().lock();
+		try {
+			recordedDuringRebuild = new ArrayList<long[]>();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+		Collection<long[]> baskets;
+		try {
+			baskets = history.get();
+		} catch (RuntimeException e) {
+			lock.writeLock().lock();
+			try {
+				recordedDuringRebuild = null;
+			}
+			finally {
+				lock.writeLock().unlock();
+			}
+			throw e;
+		}
+		CoOccurrenceMatrix rebuilt = baskets.parallelStream().collect(Collector.of(CoOccurrenceMatrix::new,
+				CoOccurrenceMatrix::addBasket,
+				(left, right) -> {
+					left.merge(right);
+					return left;
+				},
+				Collector.Characteristics.UNORDERED));
+		lock.writeLock().lock();
+		try {
+			for (long[] basket : recordedDuringRebuild) {
+				rebuilt.addBasket(basket);
+			}
+			recordedDuringRebuild = null;
+			matrix = rebuilt;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	//to be called with the Products of a new order, counted once the current transaction (if any) commits
+	public void recordOrder(Collection<Long> productIds) {
+		long[] basket = productIds.stream().mapToLong(Long::longValue).toArray();
+		if (basket.length < 2) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					add(basket);
+				}
+			});
+		} else {
+			add(basket);
+		}
+	}
+
+	public void remove(long id) {
+		lock.writeLock().lock();
+		try {
+			matrix.remove(id);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	//ids of the Products most bought with the given ones, most frequent first
+	public List<Long> companions(Collection<Long> ids, int limit) {
+		long[] productIds = ids.stream().mapToLong(Long::longValue).distinct().toArray();
+		int size = Math.min(Math.max(limit, 1), MAX_LIMIT);
+		long[] top;
+		lock.readLock().lock();
+		try {
+			top = matrix.top(productIds, size);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		List<Long> companions = new ArrayList<Long>(top.length);
+		for (long id : top) {
+			companions.add(id);
+		}
+		return companions;
+	}
+
+	private void add(long[] basket) {
+		lock.writeLock().lock();
+		try {
+			matrix.addBasket(basket);
+			if (recordedDuringRebuild != null) {
+				recordedDuringRebuild.add(basket);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
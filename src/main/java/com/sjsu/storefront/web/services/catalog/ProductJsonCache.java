@@ -0,0 +1,112 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sjsu.storefront.data.model.DTO.ProductDTO;
+
+/**
+ * Cache of the serialized (UTF-8 JSON) form of every product, keyed by product id and
+ * catalog version. The fragments are serialized from the catalog index snapshot, so a fragment
+ * can never be newer or older than the version it is stored under, and list responses are
+ * assembled by copying the fragments into the response stream.
+ */
+@Component
+public class ProductJsonCache {
+
+	//upper bound on cached fragments, past it products are serialized on every request
+	static final int MAX_FRAGMENTS = 200_000;
+
+	private static final byte[] OPEN = { '[' };
+	private static final byte[] COMMA = { ',' };
+	private static final byte[] CLOSE = { ']' };
+
+	private static class Fragment {
+		final long version;
+		final byte[] json;
+
+		Fragment(long version, byte[] json) {
+			this.version = version;
+			this.json = json;
+		}
+	}
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	ProductCatalogIndex productCatalogIndex;
+
+	private final ConcurrentHashMap<Long, Fragment> fragments = new ConcurrentHashMap<Long, Fragment>();
+
+	//JSON of the product, from the cache when the catalog has it, otherwise serialized from the given DTO
+	public byte[] get(ProductDTO product) throws IOException {
+		byte[] json = get(product.getId());
+		return json != null ? json : objectMapper.writeValueAsBytes(product);
+	}
+
+	//JSON of the product as the catalog index has it now, null when it is not in the catalog
+	public byte[] get(long id) throws IOException {
+		ProductCatalogIndex.Versioned current = productCatalogIndex.getVersioned(id);
+		if (current == null) {
+			return null;
+		}
+		Fragment fragment = fragments.get(id);
+		if (fragment != null && fragment.version == current.getVersion()) {
+			return fragment.json;
+		}
+		byte[] json = objectMapper.writeValueAsBytes(current.getProduct());
+		if (fragments.size() < MAX_FRAGMENTS || fragment != null) {
+			//two readers may race to fill the same entry, the newer version always wins
+			Fragment fresh = new Fragment(current.getVersion(), json);
+			fragments.merge(id, fresh, (old, neu) -> old.version >= neu.version ? old : neu);
+		}
+		return json;
+	}
+
+	public void writeArray(List<ProductDTO> products, OutputStream out) throws IOException {
+		out.write(OPEN);
+		boolean first = true;
+		for (ProductDTO product : products) {
+			if (!first) {
+				out.write(COMMA);
+			}
+			out.write(get(product));
+			first = false;
+		}
+		out.write(CLOSE);
+	}
+
+	//the products by id, straight from the index and the fragments: nothing is loaded nor built per product
+	//when the fragments are cached. Products deleted in the meantime are left out
+	public void writeIdArray(List<Long> ids, OutputStream out) throws IOException {
+		out.write(OPEN);
+		boolean first = true;
+		for (Long id : ids) {
+			byte[] json = get(id);
+			if (json == null) {
+				continue;
+			}
+			if (!first) {
+				out.write(COMMA);
+			}
+			out.write(json);
+			first = false;
+		}
+		out.write(CLOSE);
+	}
+
+	public void evict(long id) {
+		fragments.remove(id);
+	}
+
+	public void clear() {
+		fragments.clear();
+	}
+}
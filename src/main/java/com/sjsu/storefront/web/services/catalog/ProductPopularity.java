@@ -0,0 +1,156 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sjsu.storefront.data.model.DTO.ProductDTO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Trending Products: how often each Product is viewed and added to a cart, counted in memory
+ * (PopularitySketch, no database write per hit) with older hits fading out (halved every DECAY_MINUTES).
+ * The counts are saved to disk every minute and on shutdown, and loaded back at startup.
+ */
+@Component
+public class ProductPopularity {
+
+	public enum Event {
+		VIEW,
+		ADD_TO_CART
+	}
+
+	public static final int MAX_TOP = 100;
+
+	private static final long DECAY_MINUTES = 60;
+	private static final long SNAPSHOT_SECONDS = 60;
+	private static final int SNAPSHOT_VERSION = 1;
+
+	private static final Logger logger = LoggerFactory.getLogger(ProductPopularity.class);
+
+	@Autowired
+	ProductCatalogIndex productCatalogIndex;
+
+	private final Map<Event, PopularitySketch> sketches = new EnumMap<Event, PopularitySketch>(Event.class);
+
+	private final Path snapshot;
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "product-popularity");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public ProductPopularity(@Value("${storefront.popularity.snapshot:popularity.snapshot}") String snapshot) {
+		this.snapshot = Paths.get(snapshot).toAbsolutePath();
+		for (Event event : Event.values()) {
+			sketches.put(event, new PopularitySketch(2 * MAX_TOP));
+		}
+	}
+
+	@PostConstruct
+	public void start() {
+		load();
+		scheduler.scheduleAtFixedRate(this::decay, DECAY_MINUTES, DECAY_MINUTES, TimeUnit.MINUTES);
+		scheduler.scheduleWithFixedDelay(this::save, SNAPSHOT_SECONDS, SNAPSHOT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	//on the request path: a few atomic adds
+	public void record(Event event, long productId) {
+		sketches.get(event).record(productId, 1);
+	}
+
+	//the Products with the most (recent) hits, most first. Deleted Products are left out
+	public List<ProductDTO> top(Event event, int limit) {
+		int size = Math.min(Math.max(limit, 1), MAX_TOP);
+		List<ProductDTO> products = new ArrayList<ProductDTO>();
+		for (Long id : sketches.get(event).top(2 * size)) {
+			ProductDTO product = productCatalogIndex.get(id);
+			if (product != null) {
+				products.add(product);
+				if (products.size() == size) {
+					break;
+				}
+			}
+		}
+		return products;
+	}
+
+	private void decay() {
+		try {
+			for (PopularitySketch sketch : sketches.values()) {
+				sketch.decay();
+			}
+		} catch (RuntimeException e) {
+			logger.warn("Decaying the Product popularity failed", e);
+		}
+	}
+
+	private void load() {
+		if (!Files.exists(snapshot)) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+			if (in.readInt() != SNAPSHOT_VERSION) {
+				throw new IOException("Unknown snapshot version");
+			}
+			for (Event event : Event.values()) {
+				sketches.get(event).read(in);
+			}
+			logger.info("Loaded the Product popularity from {}", snapshot);
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Could not load the Product popularity from {}, starting from zero", snapshot, e);
+			for (Event event : Event.values()) {
+				sketches.put(event, new PopularitySketch(2 * MAX_TOP));
+			}
+		}
+	}
+
+	//written aside then moved over the previous snapshot, a crash never leaves half a snapshot
+	private void save() {
+		try {
+			Files.createDirectories(snapshot.getParent());
+			Path tmp = Files.createTempFile(snapshot.getParent(), "popularity", ".part");
+			try {
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+					out.writeInt(SNAPSHOT_VERSION);
+					for (Event event : Event.values()) {
+						sketches.get(event).write(out);
+					}
+				}
+				Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Could not save the Product popularity to {}", snapshot, e);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+		save();
+	}
+}
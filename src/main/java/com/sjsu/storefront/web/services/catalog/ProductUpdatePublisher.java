@@ -0,0 +1,339 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.sjsu.storefront.data.model.DTO.ProductDTO;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes the price and stock of Products to the clients subscribed to them (Server-Sent Events).
+ * Changes are coalesced: only the latest price/stock of a Product is kept until the next flush, so a
+ * Product changing many times between two flushes is sent once. Sending is done on a small pool, one
+ * client at a time: a slow client only delays itself, its pending updates keep being coalesced meanwhile.
+ * A send blocked longer than SEND_TIMEOUT_MILLIS (a client not reading) drops the client, and the pool gets
+ * an extra thread for as long as that send stays blocked, so stuck clients never starve the others.
+ */
+@Component
+public class ProductUpdatePublisher {
+
+	public static final int MAX_PRODUCTS_PER_SUBSCRIPTION = 100;
+
+	private static final long FLUSH_MILLIS = 250;
+	private static final long HEARTBEAT_MILLIS = 15_000;
+	private static final long SUBSCRIPTION_TIMEOUT_MILLIS = 30 * 60 * 1000;
+	private static final int SENDER_THREADS = 4;
+	private static final long SEND_TIMEOUT_MILLIS = 5_000;
+	//extra threads standing in for blocked sends, past it the blocked sends do delay the others
+	private static final int MAX_REPLACED_SENDERS = 60;
+
+	private static final Logger logger = LoggerFactory.getLogger(ProductUpdatePublisher.class);
+
+	@Autowired
+	ProductCatalogIndex productCatalogIndex;
+
+	private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<Long, Set<Subscriber>>();
+
+	//latest price/stock of the changed Products since the last flush
+	private final Map<Long, ProductUpdate> changed = new ConcurrentHashMap<Long, ProductUpdate>();
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(daemon("product-updates-flush"));
+	private final ThreadPoolExecutor senders = new ThreadPoolExecutor(SENDER_THREADS, SENDER_THREADS + MAX_REPLACED_SENDERS,
+			60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), daemon("product-updates-send"));
+	
+	//every subscriber, for the blocked send check
+	private final Set<Subscriber> active = ConcurrentHashMap.newKeySet();
+	//sends given up on (their client dropped) that are still blocked, each one has a stand-in thread in the pool
+	private final AtomicInteger blockedSends = new AtomicInteger();
+
+	public ProductUpdatePublisher() {
+		scheduler.scheduleWithFixedDelay(this::flush, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+		scheduler.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_MILLIS, HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+		scheduler.scheduleWithFixedDelay(this::dropBlocked, 1000, 1000, TimeUnit.MILLISECONDS);
+	}
+
+	//the current price/stock of every Product is sent right away, then their changes
+	public SseEmitter subscribe(Collection<Long> ids) {
+		Set<Long> productIds = new LinkedHashSet<Long>(ids);
+		if (productIds.isEmpty() || productIds.size() > MAX_PRODUCTS_PER_SUBSCRIPTION) {
+			throw new IllegalArgumentException("Subscribe to 1 to " + MAX_PRODUCTS_PER_SUBSCRIPTION + " Products");
+		}
+		SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT_MILLIS);
+		Subscriber subscriber = new Subscriber(emitter, productIds);
+		emitter.onCompletion(() -> unsubscribe(subscriber));
+		emitter.onTimeout(() -> unsubscribe(subscriber));
+		emitter.onError(e -> unsubscribe(subscriber));
+		active.add(subscriber);
+		for (Long id : productIds) {
+			//atomic with the removal of the emptied sets in unsubscribe
+			subscribers.compute(id, (k, set) -> {
+				Set<Subscriber> subs = set == null ? new CopyOnWriteArraySet<Subscriber>() : set;
+				subs.add(subscriber);
+				return subs;
+			});
+			ProductDTO product = productCatalogIndex.get(id);
+			if (product != null) {
+				subscriber.offer(new ProductUpdate(product));
+			}
+		}
+		schedule(subscriber);
+		return emitter;
+	}
+
+	//to be called with the new state of a changed Product, pushed once the current transaction (if any) commits
+	public void publish(ProductDTO product) {
+		if (!subscribers.containsKey(product.getId())) {
+			return;
+		}
+		ProductUpdate update = new ProductUpdate(product);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					changed.put(update.getId(), update);
+				}
+			});
+		} else {
+			changed.put(update.getId(), update);
+		}
+	}
+
+	private void flush() {
+		try {
+			Iterator<ProductUpdate> it = changed.values().iterator();
+			while (it.hasNext()) {
+				ProductUpdate update = it.next();
+				it.remove();
+				Set<Subscriber> set = subscribers.get(update.getId());
+				if (set == null) {
+					continue;
+				}
+				for (Subscriber subscriber : set) {
+					if (subscriber.offer(update)) {
+						schedule(subscriber);
+					}
+				}
+			}
+		} catch (RuntimeException e) {
+			logger.warn("Flushing Product updates failed", e);
+		}
+	}
+
+	private void heartbeat() {
+		for (Set<Subscriber> set : subscribers.values()) {
+			for (Subscriber subscriber : set) {
+				subscriber.heartbeatDue = true;
+				schedule(subscriber);
+			}
+		}
+	}
+
+	private void schedule(Subscriber subscriber) {
+		if (subscriber.sending.compareAndSet(false, true)) {
+			senders.execute(() -> send(subscriber));
+		}
+	}
+
+	private void send(Subscriber subscriber) {
+		try {
+			while (true) {
+				List<ProductUpdate> updates = subscriber.drain();
+				boolean heartbeat = subscriber.heartbeatDue;
+				subscriber.heartbeatDue = false;
+				if (updates.isEmpty() && !heartbeat) {
+					subscriber.sending.set(false);
+					//an update offered after drain() but before the flag was cleared would otherwise wait for the next one
+					if (subscriber.isIdle() || !subscriber.sending.compareAndSet(false, true)) {
+						return;
+					}
+					continue;
+				}
+				for (ProductUpdate update : updates) {
+					if (!emit(subscriber, SseEmitter.event()
+							.name("product")
+							.id(Long.toString(update.getId()))
+							.data(update, MediaType.APPLICATION_JSON))) {
+						subscriber.emitter.complete();
+						return;
+					}
+				}
+				if (heartbeat && updates.isEmpty() && !emit(subscriber, SseEmitter.event().comment("keepalive"))) {
+					subscriber.emitter.complete();
+					return;
+				}
+			}
+		} catch (IOException | IllegalStateException e) {
+			//client gone
+			subscriber.sending.set(false);
+			unsubscribe(subscriber);
+			subscriber.emitter.completeWithError(e);
+		}
+	}
+	
+	//false when the send blocked so long that the client was dropped meanwhile (see dropBlocked)
+	private boolean emit(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+		long started = System.nanoTime();
+		subscriber.sendingSince.set(started);
+		boolean givenUp = true;
+		try {
+			subscriber.emitter.send(event);
+		} finally {
+			givenUp = !subscriber.sendingSince.compareAndSet(started, 0);
+			if (givenUp) {
+				//the stand-in thread goes away
+				senders.setCorePoolSize(SENDER_THREADS + Math.min(blockedSends.decrementAndGet(), MAX_REPLACED_SENDERS));
+			}
+		}
+		return !givenUp;
+	}
+	
+	//Drops the clients whose send has been blocked too long (not reading), their thread is stuck until the
+	//container's write timeout so the pool gets a stand-in thread meanwhile
+	private void dropBlocked() {
+		long now = System.nanoTime();
+		for (Subscriber subscriber : active) {
+			long since = subscriber.sendingSince.get();
+			if (since != 0 && now - since > TimeUnit.MILLISECONDS.toNanos(SEND_TIMEOUT_MILLIS)
+					&& subscriber.sendingSince.compareAndSet(since, -1)) {
+				unsubscribe(subscriber);
+				senders.setCorePoolSize(SENDER_THREADS + Math.min(blockedSends.incrementAndGet(), MAX_REPLACED_SENDERS));
+				logger.info("Dropped a Product updates subscriber not reading for {} ms", SEND_TIMEOUT_MILLIS);
+			}
+		}
+	}
+
+	private void unsubscribe(Subscriber subscriber) {
+		active.remove(subscriber);
+		for (Long id : subscriber.productIds) {
+			subscribers.computeIfPresent(id, (k, set) -> {
+				set.remove(subscriber);
+				return set.isEmpty() ? null : set;
+			});
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+		senders.shutdownNow();
+	}
+
+	private static ThreadFactory daemon(String name) {
+		AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	private static class Subscriber {
+		private final SseEmitter emitter;
+		private final Set<Long> productIds;
+
+		//updates not sent yet, one per Product
+		private final Map<Long, ProductUpdate> pending = new ConcurrentHashMap<Long, ProductUpdate>();
+		//last update sent (or queued) per Product, to skip the ones that don't change price nor stock
+		private final Map<Long, ProductUpdate> last = new ConcurrentHashMap<Long, ProductUpdate>();
+
+		private final AtomicBoolean sending = new AtomicBoolean();
+		private volatile boolean heartbeatDue;
+		//start (nanoTime) of the send in progress, 0 when not sending, -1 once given up on
+		private final AtomicLong sendingSince = new AtomicLong();
+
+		Subscriber(SseEmitter emitter, Set<Long> productIds) {
+			this.emitter = emitter;
+			this.productIds = productIds;
+		}
+
+		//false when the client already has (or will get) the same price and stock
+		boolean offer(ProductUpdate update) {
+			ProductUpdate previous = last.put(update.getId(), update);
+			if (update.equals(previous)) {
+				return false;
+			}
+			pending.put(update.getId(), update);
+			return true;
+		}
+
+		List<ProductUpdate> drain() {
+			List<ProductUpdate> updates = new ArrayList<ProductUpdate>();
+			Iterator<ProductUpdate> it = pending.values().iterator();
+			while (it.hasNext()) {
+				updates.add(it.next());
+				it.remove();
+			}
+			return updates;
+		}
+
+		boolean isIdle() {
+			return pending.isEmpty() && !heartbeatDue;
+		}
+	}
+
+	//what is pushed to the clients
+	public static class ProductUpdate {
+		private final long id;
+		private final double price;
+		private final int quantityInStock;
+
+		ProductUpdate(ProductDTO product) {
+			this.id = product.getId();
+			this.price = product.getPrice();
+			this.quantityInStock = product.getQuantityInStock();
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public double getPrice() {
+			return price;
+		}
+
+		public int getQuantityInStock() {
+			return quantityInStock;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ProductUpdate)) {
+				return false;
+			}
+			ProductUpdate other = (ProductUpdate) obj;
+			return id == other.id && Double.compare(price, other.price) == 0 && quantityInStock == other.quantityInStock;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(id) * 31 + Double.hashCode(price) * 17 + quantityInStock;
+		}
+	}
+}
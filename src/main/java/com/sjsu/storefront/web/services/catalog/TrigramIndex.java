@@ -0,0 +1,99 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from character trigrams to the ids of the texts containing them.
+ * A substring query is answered by intersecting the postings of the query's trigrams and then
+ * verifying the (few) candidates, which gives the same result as LIKE '%term%' without a scan.
+ * Not thread safe, callers guard it.
+ */
+class TrigramIndex {
+
+	private final Map<String, Set<Long>> postings = new HashMap<String, Set<Long>>();
+	
+	//normalized text per id, needed to un-index on update/delete and to verify candidates
+	private final Map<Long, String> texts = new HashMap<Long, String>();
+
+	static String normalize(String text) {
+		return text == null ? "" : text.toLowerCase(Locale.ROOT);
+	}
+
+	void put(long id, String text) {
+		remove(id);
+		String normalized = normalize(text);
+		texts.put(id, normalized);
+		for (String gram : trigrams(normalized)) {
+			postings.computeIfAbsent(gram, g -> new HashSet<Long>()).add(id);
+		}
+	}
+
+	void remove(long id) {
+		String old = texts.remove(id);
+		if (old == null) {
+			return;
+		}
+		for (String gram : trigrams(old)) {
+			Set<Long> ids = postings.get(gram);
+			if (ids != null) {
+				ids.remove(id);
+				if (ids.isEmpty()) {
+					postings.remove(gram);
+				}
+			}
+		}
+	}
+
+	void clear() {
+		postings.clear();
+		texts.clear();
+	}
+
+	//ids of all texts containing the term, case insensitive
+	List<Long> search(String term) {
+		String needle = normalize(term);
+		List<Long> result = new ArrayList<Long>();
+		if (needle.length() < 3) {
+			//too short to have a trigram, the names are all in memory anyway
+			for (Map.Entry<Long, String> entry : texts.entrySet()) {
+				if (entry.getValue().contains(needle)) {
+					result.add(entry.getKey());
+				}
+			}
+			return result;
+		}
+
+		//start from the rarest trigram so the candidate set is as small as possible
+		Set<String> grams = trigrams(needle);
+		Set<Long> smallest = null;
+		for (String gram : grams) {
+			Set<Long> ids = postings.get(gram);
+			if (ids == null) {
+				return result;
+			}
+			if (smallest == null || ids.size() < smallest.size()) {
+				smallest = ids;
+			}
+		}
+		for (Long id : smallest) {
+			if (texts.get(id).contains(needle)) {
+				result.add(id);
+			}
+		}
+		return result;
+	}
+
+	private static Set<String> trigrams(String text) {
+		Set<String> grams = new HashSet<String>();
+		for (int i = 0; i + 3 <= text.length(); i++) {
+			grams.add(text.substring(i, i + 3));
+		}
+		return grams;
+	}
+}
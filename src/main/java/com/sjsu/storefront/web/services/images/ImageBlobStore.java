@@ -0,0 +1,222 @@
+package com.sjsu.storefront.web.services.images;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.sjsu.storefront.common.ImageVariant;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Image bytes kept on the local disk, named after the SHA-256 of their content (plus the type extension),
+ * so the same image uploaded twice is stored once and a blob never changes once written.
+ * Blobs are served straight from the file: with Tomcat's sendfile (zero-copy) when the connector supports it,
+ * otherwise streamed from a FileChannel to the response through a small buffer, never loaded whole in memory.
+ */
+@Component
+public class ImageBlobStore {
+
+	//the URL the blobs are served at, the blob name follows
+	public static final String URL_PREFIX = ImageVariant.LOCAL_IMAGE_PREFIX;
+
+	public static final long MAX_IMAGE_BYTES = 10 * 1024 * 1024;
+
+	private static final Map<String, String> EXTENSIONS = Map.of(
+			"image/jpeg", "jpg",
+			"image/png", "png",
+			"image/gif", "gif",
+			"image/webp", "webp");
+
+	private static final Map<String, String> CONTENT_TYPES = Map.of(
+			"jpg", "image/jpeg",
+			"png", "image/png",
+			"gif", "image/gif",
+			"webp", "image/webp");
+
+	private static final Pattern BLOB_NAME = Pattern.compile("([0-9a-f]{64})\\.(jpg|png|gif|webp)");
+	private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+	//content addressed: the content of a URL never changes
+	private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+	private static final Logger logger = LoggerFactory.getLogger(ImageBlobStore.class);
+
+	private final Path root;
+
+	public ImageBlobStore(@Value("${storefront.images.dir:images}") String dir) throws IOException {
+		this.root = Paths.get(dir).toAbsolutePath();
+		Files.createDirectories(root.resolve("tmp"));
+		logger.info("Image blobs are stored in {}", root);
+	}
+
+	//streams the image to disk, hashing it on the way. Returns the blob name
+	public String store(InputStream in, String contentType) throws IOException {
+		String extension = EXTENSIONS.get(contentType);
+		if (extension == null) {
+			throw new IllegalArgumentException("Unsupported image type " + contentType + ", use one of " + EXTENSIONS.keySet());
+		}
+		MessageDigest sha256;
+		try {
+			sha256 = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		Path tmp = Files.createTempFile(root.resolve("tmp"), "upload", ".part");
+		try {
+			long size = 0;
+			try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp, StandardOpenOption.WRITE), sha256)) {
+				byte[] buffer = new byte[16 * 1024];
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					size += read;
+					if (size > MAX_IMAGE_BYTES) {
+						throw new IllegalArgumentException("Images are limited to " + MAX_IMAGE_BYTES + " bytes");
+					}
+					out.write(buffer, 0, read);
+				}
+			}
+			if (size == 0) {
+				throw new IllegalArgumentException("Empty image");
+			}
+
+			String name = HexFormat.of().formatHex(sha256.digest()) + "." + extension;
+			Path blob = path(name);
+			if (!Files.exists(blob)) {
+				Files.createDirectories(blob.getParent());
+				try {
+					Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE);
+				} catch (FileAlreadyExistsException e) {
+					//same image stored concurrently
+				}
+			}
+			return name;
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	public static String url(String name) {
+		return URL_PREFIX + name;
+	}
+
+	//the file of the blob, null when there is no such blob
+	public Path resolve(String name) {
+		if (name == null || !BLOB_NAME.matcher(name).matches()) {
+			return null;
+		}
+		Path blob = path(name);
+		return Files.isRegularFile(blob) ? blob : null;
+	}
+	
+	//directory for the files derived from the blobs (e.g. resized images)
+	Path getRoot() {
+		return root;
+	}
+	
+	static String contentType(String fileName) {
+		return CONTENT_TYPES.get(fileName.substring(fileName.lastIndexOf('.') + 1));
+	}
+
+	//Writes the blob (or the requested range of it) with long lived cache headers
+	public void serve(String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		Path blob = resolve(name);
+		if (blob == null) {
+			response.sendError(HttpStatus.NOT_FOUND.value());
+			return;
+		}
+		serveFile(blob, name.substring(0, name.indexOf('.')), request, response);
+	}
+	
+	//any file that never changes once written, etag identifies its content
+	void serveFile(Path file, String etag, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		String quotedETag = "\"" + etag + "\"";
+		long length = Files.size(file);
+
+		response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+		response.setHeader(HttpHeaders.ETAG, quotedETag);
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+		response.setContentType(contentType(file.getFileName().toString()));
+		if (quotedETag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+			response.setStatus(HttpStatus.NOT_MODIFIED.value());
+			return;
+		}
+
+		long start = 0;
+		long end = length - 1;
+		String range = request.getHeader(HttpHeaders.RANGE);
+		//only single ranges are served partially, anything else gets the whole image (allowed by RFC 9110)
+		Matcher rangeMatcher = range == null ? null : SINGLE_RANGE.matcher(range.trim());
+		if (rangeMatcher != null && rangeMatcher.matches() && !(rangeMatcher.group(1).isEmpty() && rangeMatcher.group(2).isEmpty())) {
+			String first = rangeMatcher.group(1);
+			String last = rangeMatcher.group(2);
+			if (first.isEmpty()) {
+				//suffix range: the last n bytes
+				start = Math.max(0, length - Long.parseLong(last));
+			} else {
+				start = Long.parseLong(first);
+				if (!last.isEmpty()) {
+					end = Math.min(end, Long.parseLong(last));
+				}
+			}
+			if (start > end || start >= length) {
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+				response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+				return;
+			}
+			response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+			response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+		}
+		long count = end - start + 1;
+		response.setContentLengthLong(count);
+		if ("HEAD".equals(request.getMethod())) {
+			return;
+		}
+
+		//Tomcat (NIO connector) writes the file with sendfile once the request returns
+		if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+			request.setAttribute("org.apache.tomcat.sendfile.filename", file.toString());
+			request.setAttribute("org.apache.tomcat.sendfile.start", Long.valueOf(start));
+			request.setAttribute("org.apache.tomcat.sendfile.end", Long.valueOf(end + 1));
+			return;
+		}
+		//the response stream is not a socket channel, transferTo copies through a small buffer here
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			long position = start;
+			while (position <= end) {
+				position += channel.transferTo(position, end + 1 - position, out);
+			}
+		}
+	}
+
+	//spread over 256 directories by the first 2 characters of the hash
+	private Path path(String name) {
+		return root.resolve(name.substring(0, 2)).resolve(name);
+	}
+}
@@ -0,0 +1,260 @@
+package com.sjsu.storefront.web.services.images;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.sjsu.storefront.common.ImageVariant;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Resized versions (ImageVariant) of the image blobs, made the first time they are asked for (or right after
+ * the upload) and kept on disk next to the blobs, under variants/<variant>/, named after the blob.
+ * Resizing runs on a small bounded pool, concurrent requests for the same variant wait for the same work.
+ */
+@Component
+public class ImageVariantCache {
+
+	private static final int WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+	private static final int QUEUE_SIZE = 200;
+	//longest a request waits for its variant to be made
+	private static final long WAIT_SECONDS = 20;
+	//a few MB of compressed image can declare billions of pixels, those are never decoded
+	private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+
+	private static final Logger logger = LoggerFactory.getLogger(ImageVariantCache.class);
+
+	@Autowired
+	ImageBlobStore imageBlobStore;
+
+	private final ThreadPoolExecutor workers;
+
+	//variants being made, by file
+	private final Map<Path, CompletableFuture<Path>> inProgress = new ConcurrentHashMap<Path, CompletableFuture<Path>>();
+
+	public ImageVariantCache() {
+		AtomicInteger count = new AtomicInteger();
+		workers = new ThreadPoolExecutor(WORKERS, WORKERS, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(QUEUE_SIZE),
+				runnable -> {
+					Thread thread = new Thread(runnable, "image-variants-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	//queues all the variants of a new blob, skipped when the pool is busy (they will be made when asked for)
+	public void prepare(String name) {
+		Path blob = imageBlobStore.resolve(name);
+		if (blob == null) {
+			return;
+		}
+		for (ImageVariant variant : ImageVariant.values()) {
+			try {
+				variant(blob, name, variant);
+			} catch (RejectedExecutionException e) {
+				logger.debug("Image variants of {} left for later", name);
+				return;
+			}
+		}
+	}
+
+	public void serve(String variantName, String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		ImageVariant variant = ImageVariant.fromPathName(variantName);
+		Path blob = variant == null ? null : imageBlobStore.resolve(name);
+		if (blob == null) {
+			response.sendError(HttpStatus.NOT_FOUND.value());
+			return;
+		}
+		Path file;
+		try {
+			file = variant(blob, name, variant).get(WAIT_SECONDS, TimeUnit.SECONDS);
+		} catch (RejectedExecutionException | TimeoutException e) {
+			response.setHeader("Retry-After", "5");
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+			return;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+			return;
+		} catch (ExecutionException e) {
+			logger.warn("Could not make the {} variant of {}", variant, name, e.getCause());
+			response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value());
+			return;
+		}
+		imageBlobStore.serveFile(file, name.substring(0, name.indexOf('.')) + "-" + variant.getPathName(), request, response);
+	}
+
+	private CompletableFuture<Path> variant(Path blob, String name, ImageVariant variant) {
+		Path file = variantPath(name, variant);
+		if (Files.exists(file)) {
+			return CompletableFuture.completedFuture(file);
+		}
+		CompletableFuture<Path> created = new CompletableFuture<Path>();
+		CompletableFuture<Path> existing = inProgress.putIfAbsent(file, created);
+		if (existing != null) {
+			return existing;
+		}
+		try {
+			workers.execute(() -> {
+				try {
+					created.complete(resize(blob, file, variant));
+				} catch (Throwable e) {
+					created.completeExceptionally(e);
+				} finally {
+					inProgress.remove(file);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			inProgress.remove(file);
+			created.completeExceptionally(e);
+			throw e;
+		}
+		return created;
+	}
+
+	//gifs are resized to pngs (first frame), the variant keeps the name (and extension) of the blob so it is served as a png
+	private Path variantPath(String name, ImageVariant variant) {
+		String fileName = name.endsWith(".gif") ? name.substring(0, name.length() - 4) + ".png" : name;
+		return imageBlobStore.getRoot().resolve("variants").resolve(variant.getPathName()).resolve(fileName.substring(0, 2)).resolve(fileName);
+	}
+
+	private Path resize(Path blob, Path file, ImageVariant variant) throws IOException {
+		if (Files.exists(file)) {
+			return file;
+		}
+		Files.createDirectories(file.getParent());
+		String format = file.getFileName().toString().endsWith(".jpg") ? "jpg" : "png";
+		BufferedImage source = read(blob, variant.getMaxSize());
+		if (source == null) {
+			//no ImageIO reader for it (e.g. webp): the original is used as is
+			copy(blob, file);
+			return file;
+		}
+
+		int width = source.getWidth();
+		int height = source.getHeight();
+		double scale = Math.min(1.0, (double) variant.getMaxSize() / Math.max(width, height));
+		if (scale == 1.0 && !blob.getFileName().toString().endsWith(".gif")) {
+			//already small enough
+			copy(blob, file);
+			return file;
+		}
+		int targetWidth = Math.max(1, (int) Math.round(width * scale));
+		int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+		//halving steps keep the bilinear downscale sharp on large reductions
+		BufferedImage current = source;
+		int type = "jpg".equals(format) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+		do {
+			int stepWidth = Math.max(targetWidth, current.getWidth() / 2);
+			int stepHeight = Math.max(targetHeight, current.getHeight() / 2);
+			BufferedImage step = new BufferedImage(stepWidth, stepHeight, type);
+			Graphics2D graphics = step.createGraphics();
+			try {
+				graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+				graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+				graphics.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+			} finally {
+				graphics.dispose();
+			}
+			current = step;
+		} while (current.getWidth() > targetWidth || current.getHeight() > targetHeight);
+
+		Path tmp = Files.createTempFile(file.getParent(), "variant", ".part");
+		try {
+			if (!ImageIO.write(current, format, tmp.toFile())) {
+				throw new IOException("No ImageIO writer for " + format);
+			}
+			move(tmp, file);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+		return file;
+	}
+
+	//Decodes the first image of the file, null when no ImageIO reader knows its format. The size is read from the header
+	//first: too many pixels is refused, and a large source is decoded subsampled (every nth pixel), to about twice
+	//the variant size, so the memory used does not depend on the size of the source
+	private BufferedImage read(Path blob, int maxSize) throws IOException {
+		try (ImageInputStream in = ImageIO.createImageInputStream(blob.toFile())) {
+			Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+			if (readers == null || !readers.hasNext()) {
+				return null;
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				int width = reader.getWidth(0);
+				int height = reader.getHeight(0);
+				if ((long) width * height > MAX_SOURCE_PIXELS) {
+					throw new IOException("Image of " + width + "x" + height + " pixels is too large to resize");
+				}
+				ImageReadParam param = reader.getDefaultReadParam();
+				int step = Math.max(1, Math.max(width, height) / (2 * maxSize));
+				if (step > 1) {
+					param.setSourceSubsampling(step, step, 0, 0);
+				}
+				return reader.read(0, param);
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	private void copy(Path blob, Path file) throws IOException {
+		Path tmp = Files.createTempFile(file.getParent(), "variant", ".part");
+		try {
+			Files.copy(blob, tmp, StandardCopyOption.REPLACE_EXISTING);
+			move(tmp, file);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	//readers only ever see complete files
+	private void move(Path tmp, Path file) {
+		try {
+			Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			throw new IllegalStateException("The image directory must support atomic moves", e);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		workers.shutdownNow();
+	}
+}
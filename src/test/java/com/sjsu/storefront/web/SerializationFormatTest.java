@@ -0,0 +1,65 @@
+package com.sjsu.storefront.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.sjsu.storefront.common.ProductCategory;
+import com.sjsu.storefront.data.model.DTO.ImageDTO;
+import com.sjsu.storefront.data.model.DTO.ProductDTO;
+
+//A Product listing must survive a round trip in JSON, CBOR and Smile, and the binary formats must be smaller
+public class SerializationFormatTest {
+
+    private static final int PRODUCTS = 1000;
+    private static final TypeReference<List<ProductDTO>> PRODUCT_LIST = new TypeReference<List<ProductDTO>>() {};
+
+    @Test
+    public void binaryFormatsRoundTripAndAreSmallerThanJson() throws Exception {
+        List<ProductDTO> products = new ArrayList<ProductDTO>();
+        ProductCategory[] categories = ProductCategory.values();
+        for (int i = 0; i < PRODUCTS; i++) {
+            List<ImageDTO> images = new ArrayList<ImageDTO>();
+            images.add(new ImageDTO(i * 2, "https://cdn.example.com/products/" + i + "/front.jpg"));
+            images.add(new ImageDTO(i * 2 + 1, "https://cdn.example.com/products/" + i + "/back.jpg"));
+            products.add(new ProductDTO(i, "Product " + i, "Description of product number " + i,
+                    1.99 + i % 50, 0.25 + i % 20, i % 100, categories[i % categories.length], images));
+        }
+
+        int json = roundTrip(new ObjectMapper(), products);
+        int cbor = roundTrip(new CBORMapper(), products);
+        int smile = roundTrip(new SmileMapper(), products);
+
+        assertTrue(cbor < json, "CBOR " + cbor + " bytes, JSON " + json);
+        assertTrue(smile < json, "Smile " + smile + " bytes, JSON " + json);
+    }
+
+    //payload size in bytes
+    private int roundTrip(ObjectMapper mapper, List<ProductDTO> products) throws Exception {
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        byte[] payload = mapper.writeValueAsBytes(products);
+        List<ProductDTO> decoded = mapper.readValue(payload, PRODUCT_LIST);
+        assertEquals(products.size(), decoded.size());
+        for (int i = 0; i < products.size(); i += 97) {
+            ProductDTO expected = products.get(i);
+            ProductDTO actual = decoded.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getPrice(), actual.getPrice());
+            assertEquals(expected.getProductCategory(), actual.getProductCategory());
+            assertEquals(expected.getImages().size(), actual.getImages().size());
+            assertEquals(expected.getImages().get(1).getImageLink(), actual.getImages().get(1).getImageLink());
+        }
+        return payload.length;
+    }
+}
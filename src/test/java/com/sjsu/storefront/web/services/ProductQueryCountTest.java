@@ -0,0 +1,86 @@
+package com.sjsu.storefront.web.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sjsu.storefront.common.DuplicateResourceException;
+import com.sjsu.storefront.common.ProductCategory;
+import com.sjsu.storefront.common.ProductSort;
+import com.sjsu.storefront.data.model.DTO.ImageDTO;
+import com.sjsu.storefront.data.model.DTO.ProductDTO;
+import com.sjsu.storefront.data.model.DTO.ProductPageDTO;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+//Listing Products must take the same number of queries however many Products (and images) are listed
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class ProductQueryCountTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void addProducts() throws DuplicateResourceException {
+    	for (int i = 0; i < 10; i++) {
+    		List<ImageDTO> images = new ArrayList<ImageDTO>();
+    		images.add(new ImageDTO(0, "https://example.com/" + i + "/front.jpg"));
+    		images.add(new ImageDTO(0, "https://example.com/" + i + "/back.jpg"));
+    		productService.createProduct(new ProductDTO(0, "QueryCount " + UUID.randomUUID(), "test product",
+    				1.0 + i, 1.0, 10, ProductCategory.PANTRY, images));
+    	}
+    	//start the listings from an empty persistence context, as a request would
+    	entityManager.flush();
+    	entityManager.clear();
+
+    	statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    	statistics.clear();
+    }
+
+    @Test
+    public void testListByCategoryLoadsImagesInTheSameQuery() {
+    	List<ProductDTO> products = productService.findProductsByCategory(ProductCategory.PANTRY);
+
+    	assertTrue(products.size() >= 10);
+    	assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testAllProductsLoadsImagesInTheSameQuery() {
+    	List<ProductDTO> products = productService.getAllProducts();
+
+    	assertTrue(products.size() >= 10);
+    	assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testPageLoadsImagesInOneBatch() {
+    	ProductPageDTO page = productService.getProductsPage(ProductCategory.PANTRY, null, 10, ProductSort.PRICE);
+
+    	assertEquals(10, page.getProducts().size());
+    	//one query for the page, one IN query for the images of the whole page
+    	assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
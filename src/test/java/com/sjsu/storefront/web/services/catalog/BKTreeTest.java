@@ -0,0 +1,75 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+public class BKTreeTest {
+
+    private static final List<String> TERMS = Arrays.asList("apple", "apples", "appel", "maple", "ample", "banana",
+            "bandana", "cabana", "orange", "orang", "range", "grape", "grapes", "ca", "abc", "acb", "bca");
+
+    @Test
+    public void distanceCountsEditsAndAdjacentTranspositions() {
+        assertEquals(0, BKTree.distance("apple", "apple", Integer.MAX_VALUE));
+        assertEquals(1, BKTree.distance("apple", "appel", Integer.MAX_VALUE));
+        assertEquals(1, BKTree.distance("apple", "apples", Integer.MAX_VALUE));
+        assertEquals(1, BKTree.distance("apple", "ample", Integer.MAX_VALUE));
+        assertEquals(3, BKTree.distance("kitten", "sitting", Integer.MAX_VALUE));
+        assertEquals(5, BKTree.distance("", "grape", Integer.MAX_VALUE));
+    }
+
+    //"ca" -> "ac" -> "abc" is 2, the optimal string alignment distance says 3 and breaks the triangle inequality
+    @Test
+    public void distanceEditsATransposedPairAgain() {
+        assertEquals(2, BKTree.distance("ca", "abc", Integer.MAX_VALUE));
+        assertEquals(BKTree.distance("abc", "ca", Integer.MAX_VALUE), BKTree.distance("ca", "abc", Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void distanceStopsPastTheLimit() {
+        assertEquals(2, BKTree.distance("a", "abcdef", 1));
+        assertEquals(3, BKTree.distance("banana", "orange", 2));
+    }
+
+    @Test
+    public void searchFindsTheSameTermsAsAFullScan() {
+        BKTree tree = new BKTree();
+        for (String term : TERMS) {
+            tree.add(term);
+        }
+        tree.add("apple");
+        assertEquals(TERMS.size(), tree.size());
+
+        for (String query : Arrays.asList("aple", "appple", "bananna", "ornage", "grap", "ac", "zzz")) {
+            for (int maxDistance = 0; maxDistance <= 2; maxDistance++) {
+                TreeMap<String, Integer> expected = new TreeMap<String, Integer>();
+                for (String term : TERMS) {
+                    int d = BKTree.distance(term, query, Integer.MAX_VALUE);
+                    if (d <= maxDistance) {
+                        expected.put(term, d);
+                    }
+                }
+                TreeMap<String, Integer> found = new TreeMap<String, Integer>();
+                for (BKTree.Match match : tree.search(query, maxDistance)) {
+                    found.put(match.term, match.distance);
+                }
+                assertEquals(expected, found, query + " within " + maxDistance);
+            }
+        }
+    }
+
+    @Test
+    public void clearEmptiesTheTree() {
+        BKTree tree = new BKTree();
+        tree.add("apple");
+        tree.clear();
+        assertEquals(0, tree.size());
+        assertEquals(new ArrayList<BKTree.Match>(), tree.search("apple", 2));
+    }
+}
@@ -0,0 +1,86 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class CoOccurrenceMatrixTest {
+
+    @Test
+    public void companionsAreTheMostFrequentlyOrderedTogether() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+        matrix.addBasket(new long[] { 1, 2, 3 });
+        matrix.addBasket(new long[] { 1, 2 });
+        matrix.addBasket(new long[] { 1, 4, 4, 0 });
+        matrix.addBasket(new long[] { 2, 3 });
+
+        assertArrayEquals(new long[] { 2, 3, 4 }, matrix.top(new long[] { 1 }, 10));
+        assertArrayEquals(new long[] { 1, 3 }, matrix.top(new long[] { 2 }, 10));
+        assertArrayEquals(new long[] { 2 }, matrix.top(new long[] { 1 }, 1));
+    }
+
+    @Test
+    public void severalProductsSumTheirRowsAndLeaveThemselvesOut() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+        matrix.addBasket(new long[] { 1, 2, 3 });
+        matrix.addBasket(new long[] { 1, 3 });
+        matrix.addBasket(new long[] { 2, 4 });
+        matrix.addBasket(new long[] { 2, 4 });
+
+        //3: twice with 1 and once with 2, 4: twice with 2
+        assertArrayEquals(new long[] { 3, 4 }, matrix.top(new long[] { 1, 2 }, 10));
+    }
+
+    @Test
+    public void basketsAreCutAtMaxBasket() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+        long[] basket = new long[CoOccurrenceMatrix.MAX_BASKET + 10];
+        for (int i = 0; i < basket.length; i++) {
+            basket[i] = i + 1;
+        }
+        matrix.addBasket(basket);
+
+        assertEquals(CoOccurrenceMatrix.MAX_BASKET - 1, matrix.top(new long[] { 1 }, basket.length).length);
+        assertArrayEquals(new long[0], matrix.top(new long[] { basket.length }, 10));
+    }
+
+    @Test
+    public void mergeAddsTheCountsOfBothMatrices() {
+        CoOccurrenceMatrix left = new CoOccurrenceMatrix();
+        left.addBasket(new long[] { 1, 2 });
+        CoOccurrenceMatrix right = new CoOccurrenceMatrix();
+        right.addBasket(new long[] { 1, 3 });
+        right.addBasket(new long[] { 1, 3 });
+
+        left.merge(right);
+        assertArrayEquals(new long[] { 3, 2 }, left.top(new long[] { 1 }, 10));
+    }
+
+    @Test
+    public void removeDropsTheProductRow() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+        matrix.addBasket(new long[] { 1, 2 });
+        matrix.remove(1);
+        assertArrayEquals(new long[0], matrix.top(new long[] { 1 }, 10));
+    }
+
+    @Test
+    public void rowsArePrunedToTheMostFrequentCompanions() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix();
+        //companions 2..11 bought with 1 many times, then many one-off companions
+        for (int round = 0; round < 5; round++) {
+            for (long companion = 2; companion <= 11; companion++) {
+                matrix.addBasket(new long[] { 1, companion });
+            }
+        }
+        for (long companion = 1000; companion < 1000 + 3 * CoOccurrenceMatrix.MAX_COMPANIONS; companion++) {
+            matrix.addBasket(new long[] { 1, companion });
+        }
+
+        long[] top = matrix.top(new long[] { 1 }, 4 * CoOccurrenceMatrix.MAX_COMPANIONS);
+        assertTrue(top.length <= 2 * CoOccurrenceMatrix.MAX_COMPANIONS);
+        assertArrayEquals(new long[] { 2, 3, 4, 5, 6, 7, 8, 9, 10, 11 }, matrix.top(new long[] { 1 }, 10));
+    }
+}
@@ -0,0 +1,78 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class FacetIndexTest {
+
+    @Test
+    public void bandsCoverTheirLowerBoundUpToTheNext() {
+        assertEquals("0-5", FacetIndex.priceBand(4.99));
+        assertEquals("5-10", FacetIndex.priceBand(5));
+        assertEquals("50+", FacetIndex.priceBand(1000));
+        assertEquals("20+", FacetIndex.weightBand(20));
+    }
+
+    @Test
+    public void valuesAreOredWithinAFacetAndFacetsAnded() {
+        FacetIndex index = index();
+        Map<String, List<String>> selection = new HashMap<String, List<String>>();
+        selection.put(FacetIndex.CATEGORY, Arrays.asList("FRUIT", "DAIRY"));
+        selection.put(FacetIndex.STOCK, Arrays.asList(FacetIndex.IN_STOCK));
+
+        Map<String, Map<String, Integer>> counts = new HashMap<String, Map<String, Integer>>();
+        assertEquals(Arrays.asList(1L, 3L), ids(index, index.match(selection, counts)));
+
+        //a facet's counts ignore its own selection, not the others'
+        assertEquals(1, (int) counts.get(FacetIndex.CATEGORY).get("FRUIT"));
+        assertEquals(1, (int) counts.get(FacetIndex.CATEGORY).get("MEAT"));
+        assertEquals(2, (int) counts.get(FacetIndex.PRICE).get("0-5"));
+        assertEquals(0, (int) counts.get(FacetIndex.PRICE).get("25-50"));
+        assertEquals(2, (int) counts.get(FacetIndex.STOCK).get(FacetIndex.IN_STOCK));
+        assertEquals(1, (int) counts.get(FacetIndex.STOCK).get(FacetIndex.OUT_OF_STOCK));
+    }
+
+    @Test
+    public void removeAndUpdateMoveTheProductBetweenValues() {
+        FacetIndex index = index();
+        index.remove(1);
+        index.put(2, "MEAT", "5-10", "0-1", FacetIndex.IN_STOCK);
+
+        Map<String, List<String>> selection = Collections.singletonMap(FacetIndex.CATEGORY, Arrays.asList("FRUIT"));
+        assertEquals(Collections.emptyList(), ids(index, index.match(selection, new HashMap<String, Map<String, Integer>>())));
+        selection = Collections.singletonMap(FacetIndex.CATEGORY, Arrays.asList("MEAT"));
+        assertEquals(Arrays.asList(2L, 4L), ids(index, index.match(selection, new HashMap<String, Map<String, Integer>>())));
+
+        //the freed ordinal is reused
+        index.put(5, "FRUIT", "0-5", "0-1", FacetIndex.IN_STOCK);
+        selection = Collections.singletonMap(FacetIndex.CATEGORY, Arrays.asList("FRUIT"));
+        assertEquals(Arrays.asList(5L), ids(index, index.match(selection, new HashMap<String, Map<String, Integer>>())));
+    }
+
+    private static FacetIndex index() {
+        FacetIndex index = new FacetIndex(Arrays.asList("FRUIT", "DAIRY", "MEAT"));
+        index.put(1, "FRUIT", "0-5", "0-1", FacetIndex.IN_STOCK);
+        index.put(2, "FRUIT", "5-10", "1-5", FacetIndex.OUT_OF_STOCK);
+        index.put(3, "DAIRY", "0-5", "0-1", FacetIndex.IN_STOCK);
+        index.put(4, "MEAT", "25-50", "5-20", FacetIndex.IN_STOCK);
+        return index;
+    }
+
+    private static List<Long> ids(FacetIndex index, BitSet matches) {
+        List<Long> ids = new ArrayList<Long>();
+        for (int ord = matches.nextSetBit(0); ord >= 0; ord = matches.nextSetBit(ord + 1)) {
+            ids.add(index.idAt(ord));
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+}
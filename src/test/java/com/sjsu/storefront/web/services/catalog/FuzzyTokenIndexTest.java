@@ -0,0 +1,67 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class FuzzyTokenIndexTest {
+
+    @Test
+    public void searchToleratesTyposByTokenLength() {
+        FuzzyTokenIndex index = new FuzzyTokenIndex();
+        index.put(1, "Green Apple");
+        index.put(2, "Red Apple Juice");
+        index.put(3, "Banana");
+
+        Map<Long, FuzzyTokenIndex.Hit> hits = byId(index.search("aple"));
+        assertEquals(2, hits.size());
+        assertEquals(1, hits.get(1L).totalDistance);
+
+        //short tokens must match exactly
+        assertTrue(index.search("rd").isEmpty());
+        assertEquals(1, index.search("red").size());
+    }
+
+    @Test
+    public void hitsCountMatchedTermsAndTotalDistance() {
+        FuzzyTokenIndex index = new FuzzyTokenIndex();
+        index.put(1, "Green Apple");
+        index.put(2, "Red Apple Juice");
+
+        Map<Long, FuzzyTokenIndex.Hit> hits = byId(index.search("aple juise"));
+        assertEquals(1, hits.get(1L).matchedTerms);
+        assertEquals(2, hits.get(2L).matchedTerms);
+        assertEquals(2, hits.get(2L).totalDistance);
+    }
+
+    @Test
+    public void removeAndRenameUpdateThePostings() {
+        FuzzyTokenIndex index = new FuzzyTokenIndex();
+        index.put(1, "Green Apple");
+        index.put(2, "Apple Pie");
+
+        index.remove(2);
+        assertEquals(1, index.search("apple").size());
+
+        index.put(1, "Blueberry Muffin");
+        assertTrue(index.search("apple").isEmpty());
+        assertEquals(1, index.search("bluebery").size());
+
+        //a removed token can be used again
+        index.put(2, "Apple Pie");
+        assertEquals(2L, index.search("apple").get(0).id);
+    }
+
+    private static Map<Long, FuzzyTokenIndex.Hit> byId(List<FuzzyTokenIndex.Hit> hits) {
+        Map<Long, FuzzyTokenIndex.Hit> byId = new HashMap<Long, FuzzyTokenIndex.Hit>();
+        for (FuzzyTokenIndex.Hit hit : hits) {
+            byId.put(hit.id, hit);
+        }
+        return byId;
+    }
+}
@@ -0,0 +1,68 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void addCountsAndGrowsPastTheInitialCapacity() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (long key = 1; key <= 1000; key++) {
+            map.add(key, (int) key);
+        }
+        assertEquals(1005, map.add(5, 1000));
+        assertEquals(1000, map.size());
+        assertEquals(1005, map.get(5));
+        assertEquals(1000, map.get(1000));
+        assertEquals(0, map.get(1001));
+
+        Map<Long, Integer> visited = new HashMap<Long, Integer>();
+        map.forEach(visited::put);
+        assertEquals(1000, visited.size());
+        assertEquals(1005, (int) visited.get(5L));
+    }
+
+    @Test
+    public void keysMustBePositive() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertThrows(IllegalArgumentException.class, () -> map.add(0, 1));
+    }
+
+    @Test
+    public void topHasTheHighestCountsFirstAndTiesBySmallestKey() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.add(10, 3);
+        map.add(20, 7);
+        map.add(30, 3);
+        map.add(40, 1);
+        map.add(50, 7);
+
+        assertArrayEquals(new long[] { 20, 50, 10 }, map.top(3));
+        assertArrayEquals(new long[] { 20, 50, 10, 30, 40 }, map.top(10));
+        assertArrayEquals(new long[0], map.top(0));
+    }
+
+    @Test
+    public void pruneKeepsTheTopKeysWithTheirCounts() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (long key = 1; key <= 100; key++) {
+            map.add(key, (int) (key % 10));
+        }
+        map.prune(10);
+        assertEquals(10, map.size());
+        assertArrayEquals(new long[] { 9, 19, 29, 39, 49, 59, 69, 79, 89, 99 }, map.top(10));
+        assertEquals(9, map.get(99));
+        assertEquals(0, map.get(98));
+
+        //still usable once pruned
+        map.add(98, 20);
+        assertEquals(98, map.top(1)[0]);
+    }
+}
@@ -0,0 +1,83 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class PrefixSuggesterTest {
+
+    @Test
+    public void suggestsFromTheStartOfTheNameAndOfEveryWord() {
+        PrefixSuggester suggester = new PrefixSuggester();
+        suggester.put(1, "Green Apple", true);
+        suggester.put(2, "Apple Pie", true);
+        suggester.put(3, "Banana", true);
+
+        assertEquals(Arrays.asList("Apple Pie", "Green Apple"), suggester.suggest("ap", 10));
+        assertEquals(Arrays.asList("Green Apple"), suggester.suggest("GR", 10));
+        assertEquals(Arrays.asList("Apple Pie"), suggester.suggest("ap", 1));
+        assertTrue(suggester.suggest("x", 10).isEmpty());
+    }
+
+    @Test
+    public void ranksInStockThenShorterNames() {
+        PrefixSuggester suggester = new PrefixSuggester();
+        suggester.put(1, "Apple", false);
+        suggester.put(2, "Apple Juice", true);
+        suggester.put(3, "Apple Pie", true);
+
+        assertEquals(Arrays.asList("Apple Pie", "Apple Juice", "Apple"), suggester.suggest("app", 10));
+    }
+
+    @Test
+    public void productsSharingANameAreSuggestedOnce() {
+        PrefixSuggester suggester = new PrefixSuggester();
+        suggester.put(1, "p3 x2", false);
+        suggester.put(2, "P3 X2", true);
+        suggester.put(3, "p3 x2", true);
+        suggester.put(4, "p3 x3", true);
+
+        //the in stock one with the smallest id stands for the name
+        assertEquals(Arrays.asList("P3 X2", "p3 x3"), suggester.suggest("p3", 10));
+        assertEquals(Arrays.asList("P3 X2"), suggester.suggest("x2", 10));
+
+        //the list still fills up with other names
+        for (long id = 10; id < 20; id++) {
+            suggester.put(id, "p3 x2", true);
+        }
+        assertEquals(2, suggester.suggest("p", 10).size());
+    }
+
+    @Test
+    public void removingTheSuggestedProductOfANameFallsBackToAnother() {
+        PrefixSuggester suggester = new PrefixSuggester();
+        suggester.put(1, "Apple", true);
+        suggester.put(2, "apple", false);
+
+        suggester.remove(1);
+        assertEquals(Arrays.asList("apple"), suggester.suggest("ap", 10));
+
+        suggester.remove(2);
+        assertTrue(suggester.suggest("ap", 10).isEmpty());
+    }
+
+    @Test
+    public void renameMovesTheProduct() {
+        PrefixSuggester suggester = new PrefixSuggester();
+        suggester.put(1, "Green Apple", true);
+        suggester.put(2, "Apple Pie", true);
+
+        suggester.put(1, "Red Grape", true);
+        assertEquals(Arrays.asList("Apple Pie"), suggester.suggest("ap", 10));
+        assertEquals(Arrays.asList("Red Grape"), suggester.suggest("gr", 10));
+        assertTrue(suggester.suggest("green", 10).isEmpty());
+
+        //the stock state comes with the new name too
+        suggester.put(2, "Apple Pie", false);
+        suggester.put(3, "Apple Tart", true);
+        assertEquals(Arrays.asList("Apple Tart", "Apple Pie"), suggester.suggest("apple", 10));
+    }
+}
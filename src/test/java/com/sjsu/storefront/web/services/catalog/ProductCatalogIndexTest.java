@@ -0,0 +1,55 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.sjsu.storefront.common.ProductCategory;
+import com.sjsu.storefront.data.model.DTO.ProductDTO;
+
+public class ProductCatalogIndexTest {
+
+    @Test
+    public void fuzzySearchRanksMostMatchedTermsThenSmallestDistance() {
+        ProductCatalogIndex index = new ProductCatalogIndex();
+        index.rebuild(() -> Arrays.asList(
+                product(1, "Apple Juice"),
+                product(2, "Appel Juice"),
+                product(3, "Apple"),
+                product(4, "Apple Pie")));
+
+        //both terms matched first, the exact ones before the typo, then the single term matches by name
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), ids(index.findByNameFuzzy("apple juice", 0, 10)));
+        assertEquals(Arrays.asList(3L, 4L), ids(index.findByNameFuzzy("apple juice", 1, 2)));
+        assertTrue(index.findByNameFuzzy("apple juice", Integer.MAX_VALUE, 10).isEmpty());
+    }
+
+    @Test
+    public void fuzzySearchFollowsUpsertsAndRemovals() {
+        ProductCatalogIndex index = new ProductCatalogIndex();
+        index.rebuild(() -> Arrays.asList(product(1, "Apple Juice"), product(2, "Orange Juice")));
+
+        index.upsert(product(1, "Grape Juice"));
+        index.remove(2);
+        assertTrue(index.findByNameFuzzy("apple", 0, 10).isEmpty());
+        assertTrue(index.findByNameFuzzy("orange", 0, 10).isEmpty());
+        assertEquals(Arrays.asList(1L), ids(index.findByNameFuzzy("grap", 0, 10)));
+    }
+
+    private static ProductDTO product(long id, String name) {
+        return new ProductDTO(id, name, "", 1.0, 1.0, 10, ProductCategory.values()[0]);
+    }
+
+    private static List<Long> ids(List<ProductDTO> products) {
+        List<Long> ids = new ArrayList<Long>();
+        for (ProductDTO product : products) {
+            ids.add(product.getId());
+        }
+        return ids;
+    }
+}
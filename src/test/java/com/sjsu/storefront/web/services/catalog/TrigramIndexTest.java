@@ -0,0 +1,48 @@
+package com.sjsu.storefront.web.services.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+
+public class TrigramIndexTest {
+
+    @Test
+    public void searchMatchesSubstringsIgnoringCase() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Green Apple");
+        index.put(2, "Pineapple Juice");
+        index.put(3, "Banana");
+
+        assertEquals(new HashSet<Long>(Arrays.asList(1L, 2L)), new HashSet<Long>(index.search("APPLE")));
+        assertEquals(Arrays.asList(2L), index.search("neap"));
+        assertTrue(index.search("apples").isEmpty());
+    }
+
+    @Test
+    public void shortTermsAreMatchedWithoutTrigrams() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Green Apple");
+        index.put(2, "Banana");
+
+        assertEquals(Arrays.asList(2L), index.search("na"));
+        assertEquals(2, index.search("").size());
+    }
+
+    @Test
+    public void removeAndRenameUpdateThePostings() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Green Apple");
+        index.put(2, "Pineapple");
+
+        index.remove(2);
+        assertEquals(Arrays.asList(1L), index.search("apple"));
+
+        index.put(1, "Banana");
+        assertTrue(index.search("apple").isEmpty());
+        assertEquals(Arrays.asList(1L), index.search("banana"));
+    }
+}